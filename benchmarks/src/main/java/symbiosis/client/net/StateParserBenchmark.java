@@ -0,0 +1,54 @@
+package symbiosis.client.net;
+
+import org.openjdk.jmh.annotations.*;
+import symbiosis.client.ui.ViewState;
+import symbiosis.common.model.GameState;
+import symbiosis.common.model.Position;
+import symbiosis.server.StateSerializationBenchmark;
+import symbiosis.server.StateSnapshot;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateParserBenchmark {
+
+    @Param({"4", "64", "512"})
+    public int objectCount;
+
+    private final StateUpdateParser parser = new StateUpdateParser();
+    private final ViewState viewState = new ViewState();
+
+    private String fullPayload;
+    private String deltaPayload;
+
+    @Setup
+    public void setup() {
+        GameState state = StateSerializationBenchmark.createState(objectCount);
+
+        StateSnapshot base = StateSnapshot.capture(state, 1);
+        fullPayload = base.toPayload();
+
+        state.getFish().setPosition(Position.of(2, 1));
+        state.moveObject(0, 1, 2);
+        deltaPayload = StateSnapshot.capture(state, 1).toDeltaPayload(base);
+
+        parser.apply(fullPayload, viewState);
+    }
+
+    @Benchmark
+    public ViewState applyFull() {
+        parser.apply(fullPayload, viewState);
+        return viewState;
+    }
+
+    @Benchmark
+    public ViewState applyDelta() {
+        parser.apply(deltaPayload, viewState);
+        return viewState;
+    }
+}
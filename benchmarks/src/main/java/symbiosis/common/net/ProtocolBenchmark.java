@@ -0,0 +1,84 @@
+package symbiosis.common.net;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolBenchmark {
+
+    @Param({
+            "JOIN", "INPUT", "STATE_UPDATE", "CHAT", "ROLE_ASSIGNED", "ERROR",
+            "LEVEL_DATA", "LEVEL_VOTE", "RESTART_REQUEST", "RESTART_OFFER", "RESTART_RESPONSE",
+            "HINT_REQUEST", "HINT"
+    })
+    public MessageType type;
+
+    private final ProtocolEncoder encoder = new ProtocolEncoder();
+    private final ProtocolDecoder decoder = new ProtocolDecoder();
+    private final BinaryCodec binaryCodec = new BinaryCodec();
+
+    private Message message;
+    private String line;
+    private byte[] frame;
+
+    @Setup
+    public void setup() {
+        message = sample(type);
+        line = encoder.encode(message);
+        frame = binaryCodec.encodeFrame(message);
+    }
+
+    @Benchmark
+    public String encodeText() {
+        return encoder.encode(message);
+    }
+
+    @Benchmark
+    public Message decodeText() {
+        return decoder.decode(line);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binaryCodec.encodeFrame(message);
+    }
+
+    @Benchmark
+    public Message decodeBinary() {
+        return binaryCodec.decode(ByteBuffer.wrap(frame, 4, frame.length - 4));
+    }
+
+    static Message sample(MessageType type) {
+        return switch (type) {
+            case JOIN -> new JoinMessage("Player", "FISH", 3, "DELTA,BIN");
+            case INPUT -> new InputMessage("C123456789", InputMessage.InputType.MOVE_RIGHT);
+            case STATE_UPDATE -> new StateUpdateMessage("F:3,4;C:7,5;O:M,6,4,1/B,6,5,0/B,2,3,0/M,8,1,0");
+            case CHAT -> new ChatMessage("Fish", "Push the box to the left, I will light the way");
+            case ROLE_ASSIGNED -> new RoleAssignedMessage("C123456789", "CRAB");
+            case ERROR -> new ErrorMessage("VOTE_FAIL", "Оба игрока должны выбрать один и тот же вариант");
+            case LEVEL_DATA -> new LevelDataMessage(12, 8, new String[]{
+                    "############",
+                    "#..........#",
+                    "#..D....L..#",
+                    "#..####....#",
+                    "#..#..M....#",
+                    "#..#..B....#",
+                    "#......E...#",
+                    "############"
+            });
+            case LEVEL_VOTE -> new LevelVoteMessage("C123456789", 7);
+            case RESTART_REQUEST -> new RestartRequestMessage("C123456789");
+            case RESTART_OFFER -> new RestartOfferMessage("Crab");
+            case RESTART_RESPONSE -> new RestartResponseMessage("C123456789", true);
+            case HINT_REQUEST -> new HintRequestMessage("C123456789");
+            case HINT -> new HintMessage(InputMessage.InputType.MOVE_LEFT, 4);
+        };
+    }
+}
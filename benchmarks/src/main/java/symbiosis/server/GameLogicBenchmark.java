@@ -0,0 +1,66 @@
+package symbiosis.server;
+
+import org.openjdk.jmh.annotations.*;
+import symbiosis.common.net.InputMessage;
+import symbiosis.common.net.JoinMessage;
+import symbiosis.common.net.Message;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameLogicBenchmark {
+
+    private static final InputMessage.InputType[] MOVES = {
+            InputMessage.InputType.MOVE_RIGHT,
+            InputMessage.InputType.MOVE_DOWN,
+            InputMessage.InputType.MOVE_LEFT,
+            InputMessage.InputType.MOVE_UP
+    };
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10"})
+    public int level;
+
+    private ServerGameLogic room;
+    private InputMessage[] inputs;
+    private int next;
+
+    @Setup
+    public void setup() {
+        GameServer server = new GameServer(0);
+        server.setTickRate(0);
+
+        NullConnection fish = new NullConnection(server);
+        NullConnection crab = new NullConnection(server);
+        fish.handleMessage(new JoinMessage("Fish", "FISH", level, JoinMessage.CAP_DELTA));
+        crab.handleMessage(new JoinMessage("Crab", "CRAB", level, JoinMessage.CAP_DELTA));
+        room = fish.getRoom();
+
+        inputs = new InputMessage[MOVES.length * 2];
+        for (int i = 0; i < MOVES.length; i++) {
+            inputs[i * 2] = new InputMessage(fish.getClientId(), MOVES[i]);
+            inputs[i * 2 + 1] = new InputMessage(crab.getClientId(), MOVES[i]);
+        }
+    }
+
+    @Benchmark
+    public void handleInput() {
+        room.handleInput(inputs[next]);
+        next = (next + 1) % inputs.length;
+    }
+
+    static final class NullConnection extends ClientConnection {
+
+        NullConnection(GameServer server) {
+            super(server);
+        }
+
+        @Override
+        public void send(Message msg) {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package symbiosis.server;
+
+import org.openjdk.jmh.annotations.*;
+import symbiosis.common.model.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateSerializationBenchmark {
+
+    @Param({"4", "64", "512"})
+    public int objectCount;
+
+    private GameState state;
+    private StateSnapshot base;
+    private int step;
+
+    @Setup
+    public void setup() {
+        state = createState(objectCount);
+        base = StateSnapshot.capture(state, 1);
+    }
+
+    @Benchmark
+    public String fullPayload() {
+        return StateSnapshot.capture(state, 1).toPayload();
+    }
+
+    @Benchmark
+    public String deltaPayload() {
+        step++;
+        state.getFish().setPosition(Position.of(1 + (step & 7), 1));
+        return StateSnapshot.capture(state, 1).toDeltaPayload(base);
+    }
+
+    public static GameState createState(int objectCount) {
+        GameState state = new GameState(new CaveMap(64, 64));
+        state.setFish(new Player("C1", "Fish", PlayerRole.FISH, Position.of(1, 1)));
+        state.setCrab(new Player("C2", "Crab", PlayerRole.CRAB, Position.of(2, 5)));
+        for (int i = 0; i < objectCount; i++) {
+            ObjectType type = (i & 1) == 0 ? ObjectType.BOX : ObjectType.MUSHROOM;
+            state.addObject(i, type, i % 62 + 1, i / 62 + 1);
+        }
+        return state;
+    }
+}
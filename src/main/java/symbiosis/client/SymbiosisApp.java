@@ -20,24 +20,34 @@ import javafx.util.Duration;
 import javafx.scene.control.ListCell;
 
 import symbiosis.client.net.GameClient;
+import symbiosis.client.net.StateUpdateParser;
 import symbiosis.client.ui.CompassView;
+import symbiosis.client.ui.FrameScheduler;
 import symbiosis.client.ui.GameCanvas;
 import symbiosis.client.ui.SkinTheme;
 import symbiosis.client.ui.SoundManager;
 import symbiosis.client.ui.ViewState;
+import symbiosis.common.level.LevelCatalog;
+import symbiosis.common.level.LevelDefinition;
 import symbiosis.common.model.*;
 import symbiosis.common.net.*;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SymbiosisApp extends Application {
 
+    private static final String GENERATED_LEVEL_NAME = "Random cave";
+
     private GameClient client;
     private final ViewState viewState = new ViewState();
+    private final StateUpdateParser stateParser = new StateUpdateParser();
+    private final AtomicBoolean stateRefreshQueued = new AtomicBoolean();
     private GameCanvas gameCanvas;
     private CompassView compassView;
+    private FrameScheduler frameScheduler;
 
     private TextArea logArea;
     private TextField chatInput;
@@ -70,170 +80,7 @@ public class SymbiosisApp extends Application {
     private VBox bottomBoxRef;
     private Label menuStatusLabel;
 
-    private static final String[][] LEVEL_PREVIEWS = new String[][]{
-            {
-                    "############",
-                    "#..........#",
-                    "#..D....L..#",
-                    "#..####....#",
-                    "#..#..M....#",
-                    "#..#..B....#",
-                    "#......E...#",
-                    "############"
-            },
-            {
-                    "############",
-                    "#..M....B..#",
-                    "#..####....#",
-                    "#..D.......#",
-                    "#......L...#",
-                    "#..B....M..#",
-                    "#...E......#",
-                    "############"
-            },
-            {
-                    "############",
-                    "#..D....M..#",
-                    "#..####....#",
-                    "#..B....L..#",
-                    "#..#..B....#",
-                    "#..#....M..#",
-                    "#...E......#",
-                    "############"
-            },
-            {
-                    "############",
-                    "#..M....B..#",
-                    "###.####...#",
-                    "#..D....L..#",
-                    "#..B..M....#",
-                    "#..####....#",
-                    "#E.......B.#",
-                    "############"
-            },
-            {
-                    "############",
-                    "#M...B..D..#",
-                    "#.####.###.#",
-                    "#...L..M...#",
-                    "#.B..###...#",
-                    "#...B...M..#",
-                    "#..E.......#",
-                    "############"
-            },
-            {
-                    "############",
-                    "#..M....B..#",
-                    "#.####.###.#",
-                    "#..D....L..#",
-                    "#..B..M....#",
-                    "#.####.###.#",
-                    "#....B.....#",
-                    "#..M....B..#",
-                    "#...E......#",
-                    "############"
-            },
-            {
-                    "##################",
-                    "#..M..###....L..E#",
-                    "#.##..#..B..###..#",
-                    "#..B..#..#..M..#.#",
-                    "#..##.####.##..#.#",
-                    "#..M..B..D..B..#.#",
-                    "#..L..#..M..#..#.#",
-                    "#..#..####..#..#.#",
-                    "#..#..B..B..#..#.#",
-                    "#..####..####..#.#",
-                    "#M.....L....M..#.#",
-                    "#.####.##.####.#.#",
-                    "#..B..D..B..L..B.#",
-                    "#..M......M....E.#",
-                    "##################"
-            },
-            {
-                    "##################",
-                    "#..M..###..B....E#",
-                    "#.##B.#..######..#",
-                    "#..#..#B..M..#..##",
-                    "##.#..####.#..#..#",
-                    "#..#..D..#.#B.#..#",
-                    "#B.####.#.#.#.##B#",
-                    "#..#M..#.#.#..#..#",
-                    "#..##..#.#.##.#B.#",
-                    "#..#..#.#B..#....#",
-                    "#.M#B.#.####.#.###",
-                    "#..#.......M.#...#",
-                    "#B.####.##.###.#.#",
-                    "#..M..B..L.....#.#",
-                    "##################"
-            },
-            {
-                    "####################",
-                    "#..M....B....###..E#",
-                    "#.####.###.B.###.###",
-                    "#.#..B..#...#..M...#",
-                    "#.#.####.#.###.###.#",
-                    "#.#....M.#...B.#...#",
-                    "#.######.#####.#.###",
-                    "#..B..D....#...#..L#",
-                    "###.######.#.###.###",
-                    "#...#....B.#...#...#",
-                    "#.###.####.###.#.#.#",
-                    "#...M..B..#...#.#..#",
-                    "#.#####.###.###.#B.#",
-                    "#M....B.....M..B...#",
-                    "####################"
-            },
-            {
-                    "####################",
-                    "#..M.B.....##....E.#",
-                    "#.####.##.#.#####.##",
-                    "#..#.#..B.#.....#..#",
-                    "##.#.####.###.#.##.#",
-                    "#..#....M.B.#.#....#",
-                    "#B.####.#####.#.####",
-                    "#..#..D....#..#..L.#",
-                    "###.#.######.##.##.#",
-                    "#...#....B..#..B...#",
-                    "#.###.####.###.###.#",
-                    "#...M..B..#...#M#B.#",
-                    "#.#####.###.###.#..#",
-                    "#M..B..D..L.....M..#",
-                    "####################"
-            },
-            {
-                    "####################",
-                    "#..M..B..###....E..#",
-                    "#.####.##.###.####.#",
-                    "#.#..B..M..#..B..#.#",
-                    "#.#.######.#.##.#..#",
-                    "#.#....D..B#....#M.#",
-                    "#..#####.###.##.####",
-                    "#..B..#...M.#..B..L#",
-                    "###.#.#.#####.###.##",
-                    "#...#.#...B..#.....#",
-                    "#.###.###.###.###..#",
-                    "#M..B...M.#..B..#..#",
-                    "####.#####.#.####.##",
-                    "#..M.....L..B..M...#",
-                    "####################"
-            }
-    };
-
-    private static final String[] LEVEL_DIFFICULTY = new String[]{
-            "★☆☆☆☆",
-            "★★☆☆☆",
-            "★★★☆☆",
-            "★★★★☆",
-            "★★★★☆",
-            "★★★★☆",
-            "★★★★★",
-            "★★★★★",
-            "★★★★★★",
-            "★★★★★★",
-            "★★★★★★"
-    };
-
+    private final LevelCatalog levelCatalog = LevelCatalog.shared();
 
     @Override
     public void start(Stage primaryStage) {
@@ -303,6 +150,14 @@ public class SymbiosisApp extends Application {
 
             if (paused) return;
 
+            if (event.getCode() == KeyCode.H) {
+                if (client == null || viewState.getClientId() == null) return;
+                client.send(new HintRequestMessage(viewState.getClientId()));
+                appendLog("Hint requested...");
+                event.consume();
+                return;
+            }
+
             InputMessage.InputType type = null;
             if (event.getCode() == KeyCode.W || event.getCode() == KeyCode.UP) {
                 type = InputMessage.InputType.MOVE_UP;
@@ -407,20 +262,9 @@ public class SymbiosisApp extends Application {
         roleBox.setMaxWidth(230);
 
         ComboBox<String> levelBox = new ComboBox<>();
-        levelBox.getItems().addAll(
-                "Level 1",
-                "Level 2",
-                "Level 3",
-                "Level 4",
-                "Level 5",
-                "Level 6",
-                "Level 7",
-                "Level 8",
-                "Level 9",
-                "Level 10",
-                "Level 11"
-        );
-        levelBox.setValue("Level 1");
+        levelBox.getItems().addAll(levelNames());
+        levelBox.getItems().add(GENERATED_LEVEL_NAME);
+        levelBox.getSelectionModel().select(0);
         levelBox.setMaxWidth(230);
 
         String cbStyle =
@@ -507,7 +351,7 @@ public class SymbiosisApp extends Application {
         previewLabel.setTextFill(Color.web("#e9f3ff"));
         previewLabel.setStyle("-fx-font-size: 13px; -fx-font-weight: bold;");
 
-        Label difficultyLabel = new Label("Difficulty: " + LEVEL_DIFFICULTY[0]);
+        Label difficultyLabel = new Label("Difficulty: " + difficultyStars(0));
         difficultyLabel.setTextFill(Color.web("#ffd49e"));
         difficultyLabel.setStyle("-fx-font-size: 12px;");
 
@@ -528,11 +372,11 @@ public class SymbiosisApp extends Application {
 
         levelBox.getSelectionModel().selectedIndexProperty().addListener((obs, oldV, newV) -> {
             int idx = (newV == null) ? 0 : newV.intValue();
-            if (idx < 0 || idx >= LEVEL_PREVIEWS.length) {
+            if (idx < 0 || idx > levelCatalog.size()) {
                 idx = 0;
             }
             renderLevelPreview(levelPreview, idx);
-            difficultyLabel.setText("Difficulty: " + LEVEL_DIFFICULTY[idx]);
+            difficultyLabel.setText("Difficulty: " + difficultyStars(idx));
         });
 
         Button startButton = new Button("Start game");
@@ -606,7 +450,7 @@ public class SymbiosisApp extends Application {
             }
 
             int levelIdx = levelBox.getSelectionModel().getSelectedIndex();
-            preferredLevelIndex = levelIdx;
+            preferredLevelIndex = levelIdx == levelCatalog.size() ? LevelCatalog.GENERATED_LEVEL : levelIdx;
 
             menuStatusLabel.setText("Connecting...");
             connectToServer(host, port, playerName, preferredRoleString, preferredLevelIndex, menuStatusLabel);
@@ -675,11 +519,11 @@ public class SymbiosisApp extends Application {
 
     private void renderLevelPreview(GridPane grid, int levelIndex) {
         grid.getChildren().clear();
-        if (levelIndex < 0 || levelIndex >= LEVEL_PREVIEWS.length) return;
+        if (levelIndex < 0 || levelIndex >= levelCatalog.size()) return;
 
-        String[] rows = LEVEL_PREVIEWS[levelIndex];
-        for (int y = 0; y < rows.length; y++) {
-            String row = rows[y];
+        LevelDefinition level = levelCatalog.get(levelIndex);
+        for (int y = 0; y < level.getHeight(); y++) {
+            String row = level.getRow(y);
             for (int x = 0; x < row.length(); x++) {
                 char c = row.charAt(x);
                 Rectangle r = new Rectangle(10, 10);
@@ -717,6 +561,35 @@ public class SymbiosisApp extends Application {
         }
     }
 
+    private List<String> levelNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < levelCatalog.size(); i++) {
+            names.add(levelCatalog.getName(i));
+        }
+        return names;
+    }
+
+    private String describeHint(HintMessage hint) {
+        if (!hint.isSolvable()) {
+            return "Hint: no solution from here, try restarting the level";
+        }
+        String move = switch (hint.getMove()) {
+            case MOVE_UP -> "move up";
+            case MOVE_DOWN -> "move down";
+            case MOVE_LEFT -> "move left";
+            case MOVE_RIGHT -> "move right";
+            default -> "wait for your partner";
+        };
+        return "Hint: " + move + " (" + hint.getPushes() + " box pushes to the exit)";
+    }
+
+    private String difficultyStars(int levelIndex) {
+        if (levelIndex == levelCatalog.size()) return "?";
+        if (levelIndex < 0 || levelIndex >= levelCatalog.size()) return "";
+        int stars = levelCatalog.getDifficulty(levelIndex);
+        return "★".repeat(stars) + "☆".repeat(Math.max(0, 5 - stars));
+    }
+
     private HBox createLegendItem(Color color, String text) {
         Rectangle rect = new Rectangle(12, 12, color);
         rect.setArcWidth(3);
@@ -763,6 +636,9 @@ public class SymbiosisApp extends Application {
 
         gameCanvas = new GameCanvas(800, 600, viewState);
         compassView = new CompassView(120, viewState);
+        frameScheduler = new FrameScheduler(viewState);
+        frameScheduler.add(gameCanvas);
+        frameScheduler.add(compassView);
 
         StackPane compassWrapper = new StackPane(compassView);
         compassWrapper.setPadding(new Insets(6));
@@ -793,11 +669,12 @@ public class SymbiosisApp extends Application {
         Label hudFish = new Label("🐟 Рыбка: свет и активация грибов");
         Label hudCrab = new Label("🦀 Краб: толкает ящики, видит только в свету");
         Label hudPause = new Label("ESC – пауза");
+        Label hudHint = new Label("H – подсказка");
 
         hudTitle.setTextFill(Color.web("#e9f3ff"));
         hudTitle.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
 
-        for (Label l : new Label[]{hudMove, hudAction, hudRestart, hudNext, hudGoal, hudFish, hudCrab, hudPause}) {
+        for (Label l : new Label[]{hudMove, hudAction, hudRestart, hudNext, hudGoal, hudFish, hudCrab, hudPause, hudHint}) {
             l.setTextFill(Color.web("#d4e6ff"));
             l.setStyle("-fx-font-size: 12px;");
         }
@@ -832,6 +709,7 @@ public class SymbiosisApp extends Application {
                 hudMove,
                 hudAction,
                 hudPause,
+                hudHint,
                 hudRestart,
                 hudNext,
                 hudGoal,
@@ -953,15 +831,15 @@ public class SymbiosisApp extends Application {
 
         appendLog("Connecting to " + host + ":" + port + " ...");
 
-        new Thread(() -> {
+        Thread.ofVirtual().name("ConnectThread").start(() -> {
             try {
                 GameClient gameClient = new GameClient(host, port);
-                gameClient.setOnMessage(msg ->
-                        Platform.runLater(() -> handleServerMessage(msg))
-                );
+                stateParser.reset();
+                gameClient.setOnMessage(this::onNetworkMessage);
                 gameClient.connect();
 
-                gameClient.send(new JoinMessage(playerName, preferredRoleString, preferredLevelIndex));
+                gameClient.send(new JoinMessage(playerName, preferredRoleString, preferredLevelIndex,
+                        gameClient.getCapabilities()));
 
                 Platform.runLater(() -> {
                     this.client = gameClient;
@@ -976,7 +854,35 @@ public class SymbiosisApp extends Application {
                     appendLog("Connection failed: " + ex.getMessage());
                 });
             }
-        }, "ConnectThread").start();
+        });
+    }
+
+    private void onNetworkMessage(Message msg) {
+        if (msg instanceof StateUpdateMessage stateMsg) {
+            stateParser.apply(stateMsg.getPayload(), viewState);
+            if (stateRefreshQueued.compareAndSet(false, true)) {
+                Platform.runLater(this::onStateUpdated);
+            }
+        } else if (msg instanceof LevelDataMessage levelMsg) {
+            viewState.loadLevel(CaveMap.fromRows(levelMsg.getRows()), levelMsg.getEntityIds());
+        } else {
+            Platform.runLater(() -> handleServerMessage(msg));
+        }
+    }
+
+    private void onStateUpdated() {
+        stateRefreshQueued.set(false);
+
+        if (viewState.isLevelCompleted()) {
+            if (!levelCompletedShown) {
+                levelCompletedShown = true;
+                completedCount++;
+                completedLabel.setText("Completed: " + completedCount);
+                showLevelCompletedDialog();
+            }
+        } else {
+            levelCompletedShown = false;
+        }
     }
 
     private void handleServerMessage(Message msg) {
@@ -1000,22 +906,6 @@ public class SymbiosisApp extends Application {
                 default -> "";
             };
             connectionLabel.setText("Connected to " + host + ":" + port + " as " + playerName + " (" + roleIcon + role + ")");
-        } else if (msg instanceof LevelDataMessage levelMsg) {
-            applyLevelData(levelMsg);
-        } else if (msg instanceof StateUpdateMessage stateMsg) {
-            boolean wasCompleted = viewState.isLevelCompleted();
-            parseAndApplyState(stateMsg.getPayload());
-
-            if (viewState.isLevelCompleted() && !wasCompleted) {
-                completedCount++;
-                completedLabel.setText("Completed: " + completedCount);
-                if (!levelCompletedShown) {
-                    levelCompletedShown = true;
-                    showLevelCompletedDialog();
-                }
-            } else if (!viewState.isLevelCompleted()) {
-                levelCompletedShown = false;
-            }
         } else if (msg instanceof ChatMessage chatMsg) {
             appendLog(chatMsg.getFrom() + ": " + chatMsg.getText());
         } else if (msg instanceof ErrorMessage err) {
@@ -1036,6 +926,8 @@ public class SymbiosisApp extends Application {
 
             appendLog("ERROR " + err.getErrorCode() + ": " + err.getErrorText());
 
+        } else if (msg instanceof HintMessage hint) {
+            appendLog(describeHint(hint));
         } else if (msg instanceof RestartOfferMessage offer) {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Restart request");
@@ -1078,122 +970,13 @@ public class SymbiosisApp extends Application {
         }
     }
 
-    private void applyLevelData(LevelDataMessage msg) {
-        int w = msg.getWidth();
-        int h = msg.getHeight();
-        String[] rows = msg.getRows();
-
-        TileType[][] tiles = new TileType[h][w];
-
-        for (int y = 0; y < h; y++) {
-            String row = rows[y];
-            for (int x = 0; x < w; x++) {
-                char c = row.charAt(x);
-                tiles[y][x] = charToTile(c);
-            }
-        }
-
-        viewState.setMap(tiles, w, h);
-    }
-
-    private TileType charToTile(char c) {
-        return switch (c) {
-            case '#' -> TileType.WALL;
-            case 'E' -> TileType.EXIT;
-            case 'D' -> TileType.DARK_TILE;
-            case 'L' -> TileType.LIGHT_TILE;
-            default -> TileType.EMPTY;
-        };
-    }
-
-    private void parseAndApplyState(String payload) {
-        if (payload == null) return;
-
-        List<GameObject> objects = new java.util.ArrayList<>();
-
-        String[] parts = payload.split(";");
-        boolean levelCompleted = false;
-
-        for (String part : parts) {
-            part = part.trim();
-            if (part.isEmpty()) continue;
-
-            String[] kv = part.split(":", 2);
-            if (kv.length != 2) continue;
-
-            String key = kv[0];
-            String value = kv[1];
-
-            if ("F".equalsIgnoreCase(key) || "FISH".equalsIgnoreCase(key)) {
-                String[] xy = value.split(",");
-                if (xy.length == 2) {
-                    try {
-                        int x = Integer.parseInt(xy[0]);
-                        int y = Integer.parseInt(xy[1]);
-                        viewState.setFishPosition(new Position(x, y));
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            } else if ("C".equalsIgnoreCase(key) || "CRAB".equalsIgnoreCase(key)) {
-                String[] xy = value.split(",");
-                if (xy.length == 2) {
-                    try {
-                        int x = Integer.parseInt(xy[0]);
-                        int y = Integer.parseInt(xy[1]);
-                        viewState.setCrabPosition(new Position(x, y));
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            } else if ("O".equalsIgnoreCase(key)) {
-                String[] entries = value.split("/");
-                for (String e : entries) {
-                    e = trimSafe(e);
-                    if (e.isEmpty()) continue;
-                    String[] fields = e.split(",");
-                    if (fields.length < 4) continue;
-                    char typeChar = fields[0].charAt(0);
-                    try {
-                        int x = Integer.parseInt(fields[1]);
-                        int y = Integer.parseInt(fields[2]);
-                        boolean active = "1".equals(fields[3]);
-
-                        ObjectType type = null;
-                        switch (typeChar) {
-                            case 'M' -> type = ObjectType.MUSHROOM;
-                            case 'B' -> type = ObjectType.BOX;
-                            case 'R' -> type = ObjectType.ROCK;
-                        }
-                        if (type != null) {
-                            GameObject obj = new GameObject(type, new Position(x, y));
-                            obj.setActive(active);
-                            objects.add(obj);
-                        }
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
-            } else if ("D".equalsIgnoreCase(key)) {
-                if ("1".equals(value.trim())) {
-                    levelCompleted = true;
-                }
-            }
-        }
-
-        viewState.setObjects(objects);
-        viewState.setLevelCompleted(levelCompleted);
-    }
-
-    private String trimSafe(String s) {
-        return s == null ? "" : s.trim();
-    }
-
     private void sendInput(InputMessage.InputType type) {
         if (client == null) return;
         if (viewState.isLevelCompleted()) return;
         if (paused) return;
-        String clientId = viewState.getClientId();
-        if (clientId == null) return;
+        if (viewState.getClientId() == null) return;
 
-        client.send(new InputMessage(clientId, type));
+        client.send(viewState.predictInput(type));
 
         if (type == InputMessage.InputType.MOVE_UP
                 || type == InputMessage.InputType.MOVE_DOWN
@@ -1239,19 +1022,8 @@ public class SymbiosisApp extends Application {
 
         ComboBox<String> levelBox = new ComboBox<>();
         levelBox.getItems().add("Auto (next level)");
-        levelBox.getItems().addAll(
-                "Level 1",
-                "Level 2",
-                "Level 3",
-                "Level 4",
-                "Level 5",
-                "Level 6",
-                "Level 7",
-                "Level 8",
-                "Level 9",
-                "Level 10",
-                "Level 11"
-        );
+        levelBox.getItems().addAll(levelNames());
+        levelBox.getItems().add(GENERATED_LEVEL_NAME);
         levelBox.getSelectionModel().select(0);
 
         VBox content = new VBox(8,
@@ -1268,6 +1040,8 @@ public class SymbiosisApp extends Application {
                 int selected = levelBox.getSelectionModel().getSelectedIndex();
                 if (selected == 0) {
                     return -1;
+                } else if (selected > levelCatalog.size()) {
+                    return LevelCatalog.GENERATED_LEVEL;
                 } else {
                     return selected - 1;
                 }
@@ -1280,8 +1054,10 @@ public class SymbiosisApp extends Application {
                 client.send(new LevelVoteMessage(viewState.getClientId(), idx));
                 if (idx == -1) {
                     appendLog("You voted: Auto (next level)");
+                } else if (idx == LevelCatalog.GENERATED_LEVEL) {
+                    appendLog("You voted: " + GENERATED_LEVEL_NAME);
                 } else {
-                    appendLog("You voted for Level " + (idx + 1));
+                    appendLog("You voted for " + levelCatalog.get(idx).getName());
                 }
             }
         });
@@ -1394,10 +1170,7 @@ public class SymbiosisApp extends Application {
         levelCompletedShown = false;
 
         viewState.setClientId(null);
-        viewState.setFishPosition(null);
-        viewState.setCrabPosition(null);
-        viewState.setObjects(Collections.emptyList());
-        viewState.setLevelCompleted(false);
+        viewState.clearWorld();
 
         if (gamePane != null) gamePane.setVisible(false);
         if (menuPane != null) menuPane.setVisible(true);
@@ -1442,11 +1215,8 @@ public class SymbiosisApp extends Application {
         if (client != null) {
             client.disconnect();
         }
-        if (compassView != null) {
-            compassView.stop();
-        }
-        if (gameCanvas != null) {
-            gameCanvas.stop();
+        if (frameScheduler != null) {
+            frameScheduler.stop();
         }
     }
 
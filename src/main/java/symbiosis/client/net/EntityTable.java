@@ -0,0 +1,91 @@
+package symbiosis.client.net;
+
+import symbiosis.common.model.ObjectType;
+
+import java.util.Arrays;
+
+public class EntityTable {
+
+    private static final ObjectType[] TYPES = ObjectType.values();
+
+    private int size;
+    private int[] ids = new int[16];
+    private byte[] types = new byte[16];
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private boolean[] active = new boolean[16];
+
+    public int size() {
+        return size;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public ObjectType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+
+    public boolean isActive(int index) {
+        return active[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    public EntityTable copy() {
+        EntityTable copy = new EntityTable();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    void copyFrom(EntityTable other) {
+        if (types.length < other.size) {
+            int capacity = other.types.length;
+            ids = new int[capacity];
+            types = new byte[capacity];
+            xs = new int[capacity];
+            ys = new int[capacity];
+            active = new boolean[capacity];
+        }
+        System.arraycopy(other.ids, 0, ids, 0, other.size);
+        System.arraycopy(other.types, 0, types, 0, other.size);
+        System.arraycopy(other.xs, 0, xs, 0, other.size);
+        System.arraycopy(other.ys, 0, ys, 0, other.size);
+        System.arraycopy(other.active, 0, active, 0, other.size);
+        size = other.size;
+    }
+
+    void add(int id, ObjectType type, int x, int y, boolean isActive) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            active = Arrays.copyOf(active, capacity);
+        }
+        ids[size] = id;
+        types[size] = (byte) type.ordinal();
+        xs[size] = x;
+        ys[size] = y;
+        active[size] = isActive;
+        size++;
+    }
+
+    void set(int index, int x, int y, boolean isActive) {
+        xs[index] = x;
+        ys[index] = y;
+        active[index] = isActive;
+    }
+}
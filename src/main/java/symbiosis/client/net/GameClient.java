@@ -12,17 +12,31 @@ public class GameClient {
     private final int port;
     private final ProtocolEncoder encoder = new ProtocolEncoder();
     private final ProtocolDecoder decoder = new ProtocolDecoder();
+    private final BinaryCodec binaryCodec = new BinaryCodec();
+    private final boolean binaryPreferred;
     private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
+    private MessageWriter out;
+    private MessageReader in;
     private Thread networkThread;
     private volatile boolean running;
+    private volatile WireFormat wireFormat = WireFormat.TEXT;
 
     private Consumer<Message> onMessage;
 
     public GameClient(String host, int port) {
+        this(host, port, !"text".equalsIgnoreCase(System.getProperty("symbiosis.wire")));
+    }
+
+    public GameClient(String host, int port, boolean binaryPreferred) {
         this.host = host;
         this.port = port;
+        this.binaryPreferred = binaryPreferred;
+    }
+
+    public String getCapabilities() {
+        return binaryPreferred
+                ? JoinMessage.CAP_DELTA + "," + JoinMessage.CAP_BINARY
+                : JoinMessage.CAP_DELTA;
     }
 
     public void setOnMessage(Consumer<Message> onMessage) {
@@ -31,25 +45,31 @@ public class GameClient {
 
     public void connect() throws IOException {
         socket = new Socket(host, port);
-        out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
-        in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        out = new MessageWriter(socket.getOutputStream(), encoder, binaryCodec);
+        in = new MessageReader(socket.getInputStream(), decoder, binaryCodec);
 
         running = true;
-        networkThread = new Thread(this::networkLoop, "NetworkThread");
-        networkThread.start();
+        networkThread = Thread.ofVirtual().name("NetworkThread").start(this::networkLoop);
     }
 
     private void networkLoop() {
-        String line;
         try {
-            while (running && (line = in.readLine()) != null) {
+            while (running) {
+                Message msg;
                 try {
-                    Message msg = decoder.decode(line);
-                    if (onMessage != null) {
-                        onMessage.accept(msg);
-                    }
+                    msg = in.read();
                 } catch (IllegalArgumentException e) {
                     System.out.println("Decode error: " + e.getMessage());
+                    continue;
+                }
+                if (msg == null) {
+                    break;
+                }
+                if (in.getLastFormat() == WireFormat.BINARY) {
+                    wireFormat = WireFormat.BINARY;
+                }
+                if (onMessage != null) {
+                    onMessage.accept(msg);
                 }
             }
         } catch (IOException e) {
@@ -63,8 +83,11 @@ public class GameClient {
 
     public void send(Message msg) {
         if (out != null) {
-            String line = encoder.encode(msg);
-            out.println(line);
+            try {
+                out.write(msg, wireFormat);
+            } catch (IOException e) {
+                System.out.println("Send failed: " + e.getMessage());
+            }
         }
     }
 
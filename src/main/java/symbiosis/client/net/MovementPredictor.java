@@ -0,0 +1,104 @@
+package symbiosis.client.net;
+
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.MovementRules;
+import symbiosis.common.model.OccupancyGrid;
+import symbiosis.common.model.PlayerRole;
+import symbiosis.common.model.Position;
+import symbiosis.common.net.InputMessage;
+
+import java.util.ArrayDeque;
+
+public class MovementPredictor {
+
+    private static final int MAX_PENDING = 32;
+
+    private final ArrayDeque<InputMessage> pending = new ArrayDeque<>();
+    private final StateFrame predicted = new StateFrame();
+    private int nextSeq;
+
+    public InputMessage record(String clientId, InputMessage.InputType type) {
+        InputMessage msg = new InputMessage(clientId, type, ++nextSeq);
+        if (pending.size() == MAX_PENDING) {
+            pending.poll();
+        }
+        pending.add(msg);
+        return msg;
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+
+    public StateFrame predict(StateFrame authoritative, CaveMap map, PlayerRole role) {
+        while (!pending.isEmpty() && pending.peek().getSeq() <= authoritative.getInputAck()) {
+            pending.poll();
+        }
+
+        predicted.copyFrom(authoritative);
+        if (pending.isEmpty() || map == null || role == null || authoritative.isLevelCompleted()) {
+            return predicted;
+        }
+
+        Position pos = role == PlayerRole.FISH ? predicted.getFishPosition() : predicted.getCrabPosition();
+        if (pos == null) {
+            return predicted;
+        }
+
+        EntityTable entities = predicted.getEntities();
+        OccupancyGrid grid = new OccupancyGrid(map.getWidth(), map.getHeight());
+        for (int i = 0; i < entities.size(); i++) {
+            grid.add(i, entities.getType(i), entities.getX(i), entities.getY(i));
+        }
+
+        int x = pos.getX();
+        int y = pos.getY();
+        for (InputMessage input : pending) {
+            InputMessage.InputType type = input.getInputType();
+            if (type == InputMessage.InputType.ACTION) {
+                if (role == PlayerRole.FISH) {
+                    activateMushroom(grid, entities, x, y);
+                }
+                continue;
+            }
+
+            int dx = type.getDx();
+            int dy = type.getDy();
+            if (dx == 0 && dy == 0) {
+                continue;
+            }
+
+            switch (MovementRules.resolve(map, grid, role, x, y, dx, dy)) {
+                case MovementRules.PUSH -> {
+                    int box = grid.blockerAt(x + dx, y + dy);
+                    entities.set(box, x + 2 * dx, y + 2 * dy, entities.isActive(box));
+                    grid.moveBlocker(x + dx, y + dy, x + 2 * dx, y + 2 * dy);
+                    x += dx;
+                    y += dy;
+                }
+                case MovementRules.MOVE -> {
+                    x += dx;
+                    y += dy;
+                    if (role == PlayerRole.FISH) {
+                        activateMushroom(grid, entities, x, y);
+                    }
+                }
+            }
+        }
+
+        Position moved = Position.of(x, y);
+        if (role == PlayerRole.FISH) {
+            predicted.set(moved, predicted.getCrabPosition(), false);
+        } else {
+            predicted.set(predicted.getFishPosition(), moved, false);
+        }
+        return predicted;
+    }
+
+    private void activateMushroom(OccupancyGrid grid, EntityTable entities, int x, int y) {
+        int mushroom = grid.mushroomAt(x, y);
+        if (mushroom >= 0) {
+            entities.set(mushroom, x, y, true);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package symbiosis.client.net;
+
+import symbiosis.common.model.Position;
+
+public class StateFrame {
+
+    private Position fishPosition;
+    private Position crabPosition;
+    private boolean levelCompleted;
+    private int inputAck;
+    private final EntityTable entities = new EntityTable();
+
+    public Position getFishPosition() {
+        return fishPosition;
+    }
+
+    public Position getCrabPosition() {
+        return crabPosition;
+    }
+
+    public boolean isLevelCompleted() {
+        return levelCompleted;
+    }
+
+    public int getInputAck() {
+        return inputAck;
+    }
+
+    public void setInputAck(int inputAck) {
+        this.inputAck = inputAck;
+    }
+
+    public EntityTable getEntities() {
+        return entities;
+    }
+
+    public void set(Position fishPosition, Position crabPosition, boolean levelCompleted) {
+        this.fishPosition = fishPosition;
+        this.crabPosition = crabPosition;
+        this.levelCompleted = levelCompleted;
+    }
+
+    public void clear() {
+        set(null, null, false);
+        inputAck = 0;
+        entities.clear();
+    }
+
+    public void copyFrom(StateFrame other) {
+        set(other.fishPosition, other.crabPosition, other.levelCompleted);
+        inputAck = other.inputAck;
+        entities.copyFrom(other.entities);
+    }
+}
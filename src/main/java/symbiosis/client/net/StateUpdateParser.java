@@ -0,0 +1,196 @@
+package symbiosis.client.net;
+
+import symbiosis.client.ui.ViewState;
+import symbiosis.common.model.ObjectType;
+import symbiosis.common.model.Position;
+
+public class StateUpdateParser {
+
+    private static final int BAD = Integer.MIN_VALUE;
+
+    private final StateFrame frame = new StateFrame();
+
+    private String s;
+    private int pos;
+    private int end;
+
+    public void reset() {
+        frame.clear();
+    }
+
+    public void apply(String payload, ViewState viewState) {
+        if (payload == null) return;
+        parse(payload);
+        viewState.publishState(frame);
+    }
+
+    private void parse(String payload) {
+        s = payload;
+        pos = 0;
+        end = payload.length();
+
+        boolean delta = payload.startsWith("U:1");
+        EntityTable entities = frame.getEntities();
+        if (!delta) {
+            entities.clear();
+        }
+
+        Position fish = frame.getFishPosition();
+        Position crab = frame.getCrabPosition();
+        boolean levelCompleted = delta && frame.isLevelCompleted();
+
+        while (pos < end) {
+            skipSpaces();
+            int keyStart = pos;
+            while (pos < end && s.charAt(pos) != ':' && s.charAt(pos) != ';') {
+                pos++;
+            }
+            if (pos >= end || s.charAt(pos) == ';') {
+                pos++;
+                continue;
+            }
+            int keyEnd = trimEnd(keyStart, pos);
+            pos++;
+
+            if (isKey(keyStart, keyEnd, "F") || isKey(keyStart, keyEnd, "FISH")) {
+                Position p = readPosition();
+                if (p != null) fish = p;
+            } else if (isKey(keyStart, keyEnd, "C") || isKey(keyStart, keyEnd, "CRAB")) {
+                Position p = readPosition();
+                if (p != null) crab = p;
+            } else if (isKey(keyStart, keyEnd, "O")) {
+                readObjects(entities);
+            } else if (isKey(keyStart, keyEnd, "P")) {
+                readPatches(entities);
+            } else if (isKey(keyStart, keyEnd, "Q")) {
+                int ack = readInt();
+                if (ack != BAD && ack > frame.getInputAck()) frame.setInputAck(ack);
+            } else if (isKey(keyStart, keyEnd, "D")) {
+                skipSpaces();
+                levelCompleted = pos < end && s.charAt(pos) == '1' && atFieldEnd(pos + 1);
+            }
+            skipPart();
+        }
+
+        s = null;
+        frame.set(fish, crab, levelCompleted);
+    }
+
+    private Position readPosition() {
+        int x = readInt();
+        if (x == BAD || !expect(',')) return null;
+        int y = readInt();
+        if (y == BAD || (pos < end && s.charAt(pos) != ';')) return null;
+        return Position.of(x, y);
+    }
+
+    private void readObjects(EntityTable entities) {
+        while (pos < end && s.charAt(pos) != ';') {
+            skipSpaces();
+            if (pos >= end) break;
+            char typeChar = s.charAt(pos);
+            ObjectType type = switch (typeChar) {
+                case 'M' -> ObjectType.MUSHROOM;
+                case 'B' -> ObjectType.BOX;
+                case 'R' -> ObjectType.ROCK;
+                default -> null;
+            };
+            skipField();
+            int x = expect(',') ? readInt() : BAD;
+            int y = x != BAD && expect(',') ? readInt() : BAD;
+            int activeStart = y != BAD && expect(',') ? pos : -1;
+            int id = BAD;
+            if (activeStart >= 0) {
+                skipField();
+                id = expect(',') ? readInt() : BAD;
+            }
+            skipEntry();
+            if (type != null && activeStart >= 0) {
+                entities.add(id != BAD ? id : entities.size(), type, x, y, isOne(activeStart));
+            }
+            if (pos < end && s.charAt(pos) == '/') pos++;
+        }
+    }
+
+    private void readPatches(EntityTable entities) {
+        while (pos < end && s.charAt(pos) != ';') {
+            skipSpaces();
+            int idx = readInt();
+            int x = idx != BAD && expect(',') ? readInt() : BAD;
+            int y = x != BAD && expect(',') ? readInt() : BAD;
+            int activeStart = y != BAD && expect(',') ? pos : -1;
+            skipEntry();
+            if (activeStart >= 0 && idx >= 0 && idx < entities.size()) {
+                entities.set(idx, x, y, isOne(activeStart));
+            }
+            if (pos < end && s.charAt(pos) == '/') pos++;
+        }
+    }
+
+    private int readInt() {
+        skipSpaces();
+        boolean negative = false;
+        if (pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+            negative = s.charAt(pos) == '-';
+            pos++;
+        }
+        int start = pos;
+        long value = 0;
+        while (pos < end) {
+            char c = s.charAt(pos);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) return BAD;
+            pos++;
+        }
+        if (pos == start) return BAD;
+        skipSpaces();
+        return (int) (negative ? -value : value);
+    }
+
+    private boolean isOne(int at) {
+        int i = at;
+        while (i < end && s.charAt(i) == ' ') i++;
+        return i < end && s.charAt(i) == '1' && atFieldEnd(i + 1);
+    }
+
+    private boolean atFieldEnd(int at) {
+        int i = at;
+        while (i < end && s.charAt(i) == ' ') i++;
+        return i >= end || s.charAt(i) == ';' || s.charAt(i) == '/' || s.charAt(i) == ',';
+    }
+
+    private boolean expect(char c) {
+        if (pos < end && s.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isKey(int from, int to, String key) {
+        return to - from == key.length() && s.regionMatches(true, from, key, 0, key.length());
+    }
+
+    private int trimEnd(int from, int to) {
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        return to;
+    }
+
+    private void skipSpaces() {
+        while (pos < end && Character.isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private void skipField() {
+        while (pos < end && s.charAt(pos) != ',' && s.charAt(pos) != '/' && s.charAt(pos) != ';') pos++;
+    }
+
+    private void skipEntry() {
+        while (pos < end && s.charAt(pos) != '/' && s.charAt(pos) != ';') pos++;
+    }
+
+    private void skipPart() {
+        while (pos < end && s.charAt(pos) != ';') pos++;
+        pos++;
+    }
+}
@@ -0,0 +1,109 @@
+package symbiosis.client.ui;
+
+public class Camera {
+
+    public static final double MIN_ZOOM = 0.5;
+    public static final double MAX_ZOOM = 2.5;
+
+    private final int baseTileSize;
+
+    private double zoom = 1.0;
+    private double centerX;
+    private double centerY;
+    private boolean placed;
+
+    private double viewportWidth;
+    private double viewportHeight;
+
+    public Camera(int baseTileSize) {
+        this.baseTileSize = baseTileSize;
+    }
+
+    public int getTileSize() {
+        return Math.max(8, (int) Math.round(baseTileSize * zoom));
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    public void setZoom(double zoom) {
+        this.zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    }
+
+    public void zoomBy(double factor) {
+        setZoom(zoom * factor);
+    }
+
+    public void setViewport(double width, double height) {
+        this.viewportWidth = width;
+        this.viewportHeight = height;
+    }
+
+    public void reset() {
+        placed = false;
+    }
+
+    public boolean follow(double targetX, double targetY, int mapW, int mapH, double dt) {
+        int ts = getTileSize();
+        double x = clampAxis(targetX, mapW, viewportWidth / ts);
+        double y = clampAxis(targetY, mapH, viewportHeight / ts);
+
+        if (!placed) {
+            centerX = x;
+            centerY = y;
+            placed = true;
+            return false;
+        }
+
+        double lerpFactor = Math.min(1.0, 8.0 * dt);
+        centerX += (x - centerX) * lerpFactor;
+        centerY += (y - centerY) * lerpFactor;
+
+        double epsilon = 0.5 / ts;
+        boolean moving = false;
+        if (Math.abs(x - centerX) < epsilon) {
+            centerX = x;
+        } else {
+            moving = true;
+        }
+        if (Math.abs(y - centerY) < epsilon) {
+            centerY = y;
+        } else {
+            moving = true;
+        }
+        return moving;
+    }
+
+    private double clampAxis(double target, int mapSize, double visibleTiles) {
+        if (mapSize <= visibleTiles) {
+            return mapSize / 2.0;
+        }
+        double half = visibleTiles / 2.0;
+        return Math.max(half, Math.min(mapSize - half, target));
+    }
+
+    public double getOriginX() {
+        return Math.floor(centerX * getTileSize() - viewportWidth / 2.0);
+    }
+
+    public double getOriginY() {
+        return Math.floor(centerY * getTileSize() - viewportHeight / 2.0);
+    }
+
+    public int firstVisibleX() {
+        return (int) Math.floor(getOriginX() / getTileSize());
+    }
+
+    public int firstVisibleY() {
+        return (int) Math.floor(getOriginY() / getTileSize());
+    }
+
+    public int lastVisibleX() {
+        return (int) Math.floor((getOriginX() + viewportWidth) / getTileSize());
+    }
+
+    public int lastVisibleY() {
+        return (int) Math.floor((getOriginY() + viewportHeight) / getTileSize());
+    }
+}
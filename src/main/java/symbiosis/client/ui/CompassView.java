@@ -1,53 +1,58 @@
 package symbiosis.client.ui;
 
-import javafx.animation.AnimationTimer;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import symbiosis.common.model.PlayerRole;
 import symbiosis.common.model.Position;
 
-public class CompassView extends Canvas {
+public class CompassView extends Canvas implements FrameScheduler.Renderer {
 
     private final ViewState viewState;
 
     private double currentAngleRad = 0.0;
 
-    private final AnimationTimer timer;
-
     public CompassView(double size, ViewState viewState) {
         super(size, size);
         this.viewState = viewState;
+    }
 
-        timer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                updateAngle();
-                render();
-            }
-        };
-        timer.start();
+    @Override
+    public long renderFrame(double dt, boolean stateChanged) {
+        boolean rotating = updateAngle();
+        render();
+        return rotating ? FrameScheduler.NEXT_FRAME : FrameScheduler.IDLE;
     }
 
-    private void updateAngle() {
-        Position local = viewState.getLocalPlayerPosition();
-        Position partner = viewState.getPartnerPosition();
+    private boolean updateAngle() {
+        WorldSnapshot world = viewState.getWorld();
+        PlayerRole role = viewState.getLocalRole();
+        Position local = world.positionOf(role);
+        Position partner = world.partnerOf(role);
         if (local == null || partner == null) {
             double target = 0.0;
-            currentAngleRad += (target - currentAngleRad) * 0.1;
-            return;
+            return rotateBy(target - currentAngleRad);
         }
 
         double dx = partner.getX() - local.getX();
         double dy = partner.getY() - local.getY();
 
         if (dx == 0 && dy == 0) {
-            return;
+            return false;
         }
 
         double targetAngle = Math.atan2(dy, dx);
 
-        double diff = normalizeAngle(targetAngle - currentAngleRad);
+        return rotateBy(normalizeAngle(targetAngle - currentAngleRad));
+    }
+
+    private boolean rotateBy(double diff) {
+        if (Math.abs(diff) < 0.002) {
+            currentAngleRad += diff;
+            return false;
+        }
         currentAngleRad = currentAngleRad + diff * 0.1;
+        return true;
     }
 
     private double normalizeAngle(double angle) {
@@ -101,8 +106,4 @@ public class CompassView extends Canvas {
         gc.setFill(Color.DARKGRAY);
         gc.fillOval(cx - 4, cy - 4, 8, 8);
     }
-
-    public void stop() {
-        timer.stop();
-    }
 }
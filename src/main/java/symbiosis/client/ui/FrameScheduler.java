@@ -0,0 +1,136 @@
+package symbiosis.client.ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class FrameScheduler {
+
+    public static final long NEXT_FRAME = 0L;
+    public static final long AMBIENT_FRAME_NANOS = 50_000_000L;
+    public static final long IDLE = Long.MAX_VALUE;
+
+    private static final long PULSE_SLACK_NANOS = 20_000_000L;
+    private static final double IDLE_RESUME_DT = 0.016;
+
+    public interface Renderer {
+        long renderFrame(double dt, boolean stateChanged);
+
+        default void attach(FrameScheduler scheduler) {
+        }
+    }
+
+    private final ViewState viewState;
+    private final List<Renderer> renderers = new ArrayList<>();
+    private long[] lastRender = new long[0];
+    private long[] nextDue = new long[0];
+
+    private final AnimationTimer timer;
+    private final ScheduledExecutorService wakeups;
+    private ScheduledFuture<?> pendingWakeup;
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private long lastVersion = -1;
+    private boolean running;
+    private boolean stopped;
+
+    public FrameScheduler(ViewState viewState) {
+        this.viewState = viewState;
+        this.wakeups = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("FrameScheduler").daemon(true).factory());
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+
+        viewState.addChangeListener(() -> requestFrame());
+    }
+
+    public void add(Renderer renderer) {
+        renderers.add(renderer);
+        lastRender = Arrays.copyOf(lastRender, renderers.size());
+        nextDue = Arrays.copyOf(nextDue, renderers.size());
+        renderer.attach(this);
+        requestFrame();
+    }
+
+    public void requestFrame(Renderer renderer) {
+        int index = renderers.indexOf(renderer);
+        if (index >= 0) {
+            nextDue[index] = 0;
+        }
+        requestFrame();
+    }
+
+    public void requestFrame() {
+        if (Platform.isFxApplicationThread()) {
+            startTimer();
+        } else if (wakeQueued.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                wakeQueued.set(false);
+                startTimer();
+            });
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        running = false;
+        timer.stop();
+        wakeups.shutdownNow();
+    }
+
+    private void startTimer() {
+        if (running || stopped) {
+            return;
+        }
+        if (pendingWakeup != null) {
+            pendingWakeup.cancel(false);
+            pendingWakeup = null;
+        }
+        running = true;
+        timer.start();
+    }
+
+    private void onPulse(long now) {
+        long version = viewState.getVersion();
+        boolean changed = version != lastVersion;
+        lastVersion = version;
+
+        long earliest = IDLE;
+        for (int i = 0; i < renderers.size(); i++) {
+            if (changed || now >= nextDue[i]) {
+                double dt = lastRender[i] == 0 || nextDue[i] == IDLE
+                        ? IDLE_RESUME_DT
+                        : (now - lastRender[i]) / 1_000_000_000.0;
+                lastRender[i] = now;
+                long delay = renderers.get(i).renderFrame(dt, changed);
+                nextDue[i] = delay == IDLE ? IDLE : now + delay;
+            }
+            earliest = Math.min(earliest, nextDue[i]);
+        }
+
+        if (earliest == IDLE) {
+            pause();
+        } else if (earliest - now > PULSE_SLACK_NANOS) {
+            pause();
+            pendingWakeup = wakeups.schedule(() -> requestFrame(), earliest - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void pause() {
+        running = false;
+        timer.stop();
+    }
+}
@@ -1,103 +1,136 @@
 package symbiosis.client.ui;
 
-import javafx.animation.AnimationTimer;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import symbiosis.client.net.EntityTable;
 import symbiosis.common.model.*;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+public final class GameCanvas extends Canvas implements FrameScheduler.Renderer {
 
-public class GameCanvas extends Canvas {
+    private static final long MAX_CACHED_PIXELS = 24L * 1024 * 1024;
 
     private final ViewState viewState;
-    private final int tileSize = 40;
+    private final int baseTileSize = 40;
+    private int tileSize = baseTileSize;
 
     private final int fishLightRadiusTiles = 4;
     private final int mushroomLightRadiusTiles = 3;
+    private final LightMap lightMap = new LightMap(fishLightRadiusTiles, mushroomLightRadiusTiles);
 
     private double animTime = 0.0;
-    private double lastDt = 0.016;
+    private boolean interpolating;
+    private boolean ambientVisible;
 
-    private Double fishScreenX = null;
-    private Double fishScreenY = null;
-    private Double crabScreenX = null;
-    private Double crabScreenY = null;
+    private final InterpolationStore motion = new InterpolationStore();
 
-    private final Map<Integer, Double> boxScreenX = new HashMap<>();
-    private final Map<Integer, Double> boxScreenY = new HashMap<>();
+    private final Textures textures = new Textures(baseTileSize);
+    private final Camera camera = new Camera(baseTileSize);
+    private final TileLayerCache tileLayer = new TileLayerCache(textures, MAX_CACHED_PIXELS);
 
-    private final AnimationTimer timer;
+    private CaveMap cameraMap;
+    private WritableImage darknessMask;
+    private FrameScheduler scheduler;
 
-    private final Textures textures = new Textures();
+    private double originX;
+    private double originY;
 
     public GameCanvas(double width, double height, ViewState viewState) {
         super(width, height);
         this.viewState = viewState;
 
-        timer = new AnimationTimer() {
-            private long lastTime = -1;
+        setOnScroll(e -> {
+            if (e.getDeltaY() == 0) {
+                return;
+            }
+            camera.zoomBy(e.getDeltaY() > 0 ? 1.1 : 1 / 1.1);
+            if (scheduler != null) {
+                scheduler.requestFrame(this);
+            }
+        });
+    }
 
-            @Override
-            public void handle(long now) {
-                if (lastTime < 0) {
-                    lastTime = now;
-                    return;
-                }
-                double dt = (now - lastTime) / 1_000_000_000.0;
-                lastTime = now;
+    public Camera getCamera() {
+        return camera;
+    }
 
-                animTime += dt;
-                lastDt = dt;
-                updatePositions(dt);
-                render();
-            }
-        };
-        timer.start();
+    @Override
+    public void attach(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
     }
 
-    public void stop() {
-        timer.stop();
+    @Override
+    public long renderFrame(double dt, boolean stateChanged) {
+        WorldSnapshot world = viewState.getWorld();
+        animTime += dt;
+        interpolating = updatePositions(world, dt);
+        interpolating |= updateCamera(world, dt);
+        ambientVisible = false;
+        render(world);
+
+        if (interpolating) {
+            return FrameScheduler.NEXT_FRAME;
+        }
+        return ambientVisible ? FrameScheduler.AMBIENT_FRAME_NANOS : FrameScheduler.IDLE;
     }
 
-    private void updatePositions(double dt) {
-        Position fish = viewState.getFishPosition();
+    private boolean updatePositions(WorldSnapshot world, double dt) {
+        boolean moving = false;
+        double lerpFactor = Math.min(1.0, 10.0 * dt);
+
+        Position fish = world.getFishPosition();
         if (fish != null) {
-            double targetX = fish.getX() * tileSize + tileSize / 2.0;
-            double targetY = fish.getY() * tileSize + tileSize / 2.0;
-
-            if (fishScreenX == null || fishScreenY == null) {
-                fishScreenX = targetX;
-                fishScreenY = targetY;
-            } else {
-                double lerpFactor = 10.0 * dt;
-                lerpFactor = Math.min(1.0, lerpFactor);
-                fishScreenX = fishScreenX + (targetX - fishScreenX) * lerpFactor;
-                fishScreenY = fishScreenY + (targetY - fishScreenY) * lerpFactor;
-            }
+            moving |= motion.update(InterpolationStore.FISH, fish.getX() + 0.5, fish.getY() + 0.5, lerpFactor);
+        } else {
+            motion.remove(InterpolationStore.FISH);
         }
 
-        Position crab = viewState.getCrabPosition();
+        Position crab = world.getCrabPosition();
         if (crab != null) {
-            double targetX = crab.getX() * tileSize + tileSize / 2.0;
-            double targetY = crab.getY() * tileSize + tileSize / 2.0;
-
-            if (crabScreenX == null || crabScreenY == null) {
-                crabScreenX = targetX;
-                crabScreenY = targetY;
-            } else {
-                double lerpFactor = 10.0 * dt;
-                lerpFactor = Math.min(1.0, lerpFactor);
-                crabScreenX = crabScreenX + (targetX - crabScreenX) * lerpFactor;
-                crabScreenY = crabScreenY + (targetY - crabScreenY) * lerpFactor;
+            moving |= motion.update(InterpolationStore.CRAB, crab.getX() + 0.5, crab.getY() + 0.5, lerpFactor);
+        } else {
+            motion.remove(InterpolationStore.CRAB);
+        }
+
+        EntityTable entities = world.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.getType(i) != ObjectType.BOX) {
+                continue;
             }
+            moving |= motion.update(entities.getId(i),
+                    entities.getX(i) + 0.5, entities.getY(i) + 0.5, lerpFactor);
+        }
+        return moving;
+    }
+
+    private boolean updateCamera(WorldSnapshot world, double dt) {
+        CaveMap map = world.getMap();
+        if (map == null) {
+            return false;
         }
+        if (map != cameraMap) {
+            cameraMap = map;
+            camera.reset();
+            motion.reset(world.getLevelEntityIds());
+            updatePositions(world, 0);
+        }
+
+        camera.setViewport(getWidth(), getHeight());
+
+        double targetX = map.getWidth() / 2.0;
+        double targetY = map.getHeight() / 2.0;
+        PlayerRole role = viewState.getLocalRole();
+        int follow = role == PlayerRole.FISH ? InterpolationStore.FISH : InterpolationStore.CRAB;
+        if (role != null && motion.has(follow)) {
+            targetX = motion.getX(follow);
+            targetY = motion.getY(follow);
+        }
+        return camera.follow(targetX, targetY, map.getWidth(), map.getHeight(), dt);
     }
 
-    public void render() {
+    public void render(WorldSnapshot world) {
         GraphicsContext gc = getGraphicsContext2D();
 
         double w = getWidth();
@@ -106,14 +139,14 @@ public class GameCanvas extends Canvas {
         gc.setFill(Color.BLACK);
         gc.fillRect(0, 0, w, h);
 
-        TileType[][] tiles = viewState.getTiles();
-        int mapW = viewState.getMapWidth();
-        int mapH = viewState.getMapHeight();
-
-        if (tiles == null || mapW == 0 || mapH == 0) {
+        CaveMap map = world.getMap();
+        if (map == null) {
             return;
         }
 
+        int mapW = map.getWidth();
+        int mapH = map.getHeight();
+
         SkinTheme theme = viewState.getSkinTheme();
         Color emptyColor;
         Color gridColor;
@@ -140,171 +173,147 @@ public class GameCanvas extends Canvas {
         PlayerRole role = viewState.getLocalRole();
         boolean isCrab = (role == PlayerRole.CRAB);
 
-        Position fishPos = viewState.getFishPosition();
-        List<GameObject> objects = viewState.getObjects();
+        Position fishPos = world.getFishPosition();
+        EntityTable entities = world.getEntities();
 
-        for (int y = 0; y < mapH; y++) {
-            for (int x = 0; x < mapW; x++) {
-                boolean lit = !isCrab || isTileLitForCrab(x, y, fishPos, objects);
-
-                if (!lit && isCrab) {
-                    continue;
-                }
+        camera.setViewport(w, h);
+        textures.setTileSize(camera.getTileSize());
+        tileSize = textures.getTileSize();
+        originX = camera.getOriginX();
+        originY = camera.getOriginY();
 
-                TileType tile = tiles[y][x];
-
-                double px = x * tileSize;
-                double py = y * tileSize;
+        int x0 = Math.max(0, camera.firstVisibleX());
+        int y0 = Math.max(0, camera.firstVisibleY());
+        int x1 = Math.min(mapW - 1, camera.lastVisibleX());
+        int y1 = Math.min(mapH - 1, camera.lastVisibleY());
+        if (x0 > x1 || y0 > y1) {
+            return;
+        }
 
-                switch (tile) {
-                    case WALL -> drawTile(gc, textures.wall, px, py);
-                    case EXIT -> {
-                        drawTile(gc, textures.floorLight, px, py);
-                        drawTile(gc, textures.exit, px, py);
+        tileLayer.validate(map, theme, gridColor);
+        int chunk = TileLayerCache.CHUNK_TILES;
+        for (int cy = y0 / chunk; cy <= y1 / chunk; cy++) {
+            for (int cx = x0 / chunk; cx <= x1 / chunk; cx++) {
+                gc.drawImage(tileLayer.getChunk(cx, cy), screenX(cx * chunk), screenY(cy * chunk));
+            }
+        }
 
-                        double pulse = 0.5 + 0.5 * Math.sin(animTime * 3.0);
-                        gc.setGlobalAlpha(0.3 + 0.3 * pulse);
-                        gc.setFill(glowColor);
-                        gc.fillOval(px - tileSize * 0.1, py - tileSize * 0.1,
-                                tileSize * 1.2, tileSize * 1.2);
-                        gc.setGlobalAlpha(1.0);
-                    }
-                    case LIGHT_TILE -> drawTile(gc, textures.floorLight, px, py);
-                    case DARK_TILE -> drawTile(gc, textures.floorDark, px, py);
-                    case EMPTY -> drawTile(gc, textures.floor, px, py);
-                }
+        if (isCrab) {
+            if (lightMap.update(map, fishPos, entities) || darknessMask == null
+                    || darknessMask.getWidth() != mapW || darknessMask.getHeight() != mapH) {
+                rebuildDarknessMask(mapW, mapH);
+            }
+            int vw = x1 - x0 + 1;
+            int vh = y1 - y0 + 1;
+            gc.setImageSmoothing(false);
+            gc.drawImage(darknessMask, x0, y0, vw, vh,
+                    screenX(x0), screenY(y0), vw * tileSize, vh * tileSize);
+            gc.setImageSmoothing(true);
+        }
 
-                gc.setStroke(gridColor);
-                gc.strokeRect(px, py, tileSize, tileSize);
+        double pulse = 0.5 + 0.5 * Math.sin(animTime * 3.0);
+        gc.setFill(glowColor);
+        gc.setGlobalAlpha(0.3 + 0.3 * pulse);
+        for (int cell : tileLayer.getExitCells()) {
+            int x = cell % mapW;
+            int y = cell / mapW;
+            if (x < x0 || x > x1 || y < y0 || y > y1) {
+                continue;
             }
+            if (isCrab && !lightMap.isLit(x, y)) {
+                continue;
+            }
+            gc.fillOval(screenX(x) - tileSize * 0.1, screenY(y) - tileSize * 0.1,
+                    tileSize * 1.2, tileSize * 1.2);
+            ambientVisible = true;
         }
+        gc.setGlobalAlpha(1.0);
 
-        if (objects != null) {
-            for (int i = 0; i < objects.size(); i++) {
-                GameObject obj = objects.get(i);
-                Position op = obj.getPosition();
-                int ox = op.getX();
-                int oy = op.getY();
-
-                boolean lit = !isCrab || isTileLitForCrab(ox, oy, fishPos, objects);
-                if (!lit && isCrab) continue;
-
-                double px = ox * tileSize;
-                double py = oy * tileSize;
-
-                switch (obj.getType()) {
-                    case BOX -> {
-                        double targetX = px + tileSize / 2.0;
-                        double targetY = py + tileSize / 2.0;
-
-                        Double sx = boxScreenX.get(i);
-                        Double sy = boxScreenY.get(i);
-
-                        if (sx == null || sy == null) {
-                            sx = targetX;
-                            sy = targetY;
-                        } else {
-                            double lerpFactor = 10.0 * lastDt;
-                            lerpFactor = Math.min(1.0, lerpFactor);
-                            sx = sx + (targetX - sx) * lerpFactor;
-                            sy = sy + (targetY - sy) * lerpFactor;
-                        }
-
-                        boxScreenX.put(i, sx);
-                        boxScreenY.put(i, sy);
-
-                        gc.drawImage(
-                                textures.box,
-                                sx - tileSize / 2.0,
-                                sy - tileSize / 2.0,
-                                tileSize,
-                                tileSize
-                        );
-                    }
-                    case ROCK -> {
-                        gc.setFill(Color.GRAY);
-                        gc.fillOval(px + tileSize * 0.2, py + tileSize * 0.2,
-                                tileSize * 0.6, tileSize * 0.6);
-                    }
-                    case MUSHROOM -> {
-                        if (obj.isActive()) {
-                            double phase = ox + oy;
-                            double flicker = 0.5 + 0.5 * Math.sin(animTime * 5.0 + phase);
-                            double alpha = 0.3 + 0.3 * flicker;
-
-                            gc.setGlobalAlpha(alpha);
-                            gc.setFill(Color.GOLD);
-                            gc.fillOval(px - tileSize * 0.2, py - tileSize * 0.2,
-                                    tileSize * 1.4, tileSize * 1.4);
-                            gc.setGlobalAlpha(1.0);
-                        }
-
-                        gc.drawImage(textures.mushroom, px, py, tileSize, tileSize);
+        for (int i = 0; i < entities.size(); i++) {
+            ObjectType type = entities.getType(i);
+            int ox = entities.getX(i);
+            int oy = entities.getY(i);
+
+            if (ox < x0 - 1 || ox > x1 + 1 || oy < y0 - 1 || oy > y1 + 1) continue;
+
+            boolean lit = !isCrab || lightMap.isLit(ox, oy);
+            if (!lit && isCrab) continue;
+
+            double px = screenX(ox);
+            double py = screenY(oy);
+
+            switch (type) {
+                case BOX -> {
+                    int id = entities.getId(i);
+                    double wx = motion.has(id) ? motion.getX(id) : ox + 0.5;
+                    double wy = motion.has(id) ? motion.getY(id) : oy + 0.5;
+                    textures.draw(gc, Textures.Sprite.BOX,
+                            screenX(wx) - tileSize / 2.0, screenY(wy) - tileSize / 2.0);
+                }
+                case ROCK -> {
+                    gc.setFill(Color.GRAY);
+                    gc.fillOval(px + tileSize * 0.2, py + tileSize * 0.2,
+                            tileSize * 0.6, tileSize * 0.6);
+                }
+                case MUSHROOM -> {
+                    if (entities.isActive(i)) {
+                        ambientVisible = true;
+                        double phase = ox + oy;
+                        double flicker = 0.5 + 0.5 * Math.sin(animTime * 5.0 + phase);
+                        double alpha = 0.3 + 0.3 * flicker;
+
+                        gc.setGlobalAlpha(alpha);
+                        gc.setFill(Color.GOLD);
+                        gc.fillOval(px - tileSize * 0.2, py - tileSize * 0.2,
+                                tileSize * 1.4, tileSize * 1.4);
+                        gc.setGlobalAlpha(1.0);
                     }
+
+                    textures.draw(gc, Textures.Sprite.MUSHROOM, px, py);
                 }
             }
         }
 
-        Position fish = viewState.getFishPosition();
-        if (fish != null && fishScreenX != null && fishScreenY != null) {
-            boolean lit = !isCrab || isTileLitForCrab(fish.getX(), fish.getY(), fishPos, objects);
+        Position fish = world.getFishPosition();
+        if (fish != null && motion.has(InterpolationStore.FISH)) {
+            boolean lit = !isCrab || lightMap.isLit(fish.getX(), fish.getY());
             if (!isCrab || lit) {
-                gc.drawImage(
-                        textures.fish,
-                        fishScreenX - tileSize / 2.0,
-                        fishScreenY - tileSize / 2.0,
-                        tileSize,
-                        tileSize
-                );
+                textures.draw(gc, Textures.Sprite.FISH,
+                        screenX(motion.getX(InterpolationStore.FISH)) - tileSize / 2.0,
+                        screenY(motion.getY(InterpolationStore.FISH)) - tileSize / 2.0);
             }
         }
 
-        Position crab = viewState.getCrabPosition();
-        if (crab != null && crabScreenX != null && crabScreenY != null) {
-            boolean lit = !isCrab || isTileLitForCrab(crab.getX(), crab.getY(), fishPos, objects);
+        Position crab = world.getCrabPosition();
+        if (crab != null && motion.has(InterpolationStore.CRAB)) {
+            boolean lit = !isCrab || lightMap.isLit(crab.getX(), crab.getY());
             if (!isCrab || lit) {
-                gc.drawImage(
-                        textures.crab,
-                        crabScreenX - tileSize / 2.0,
-                        crabScreenY - tileSize / 2.0,
-                        tileSize,
-                        tileSize
-                );
+                textures.draw(gc, Textures.Sprite.CRAB,
+                        screenX(motion.getX(InterpolationStore.CRAB)) - tileSize / 2.0,
+                        screenY(motion.getY(InterpolationStore.CRAB)) - tileSize / 2.0);
             }
         }
     }
 
-    private void drawTile(GraphicsContext gc, Image image, double px, double py) {
-        gc.drawImage(image, px, py, tileSize, tileSize);
+    private double screenX(double tileX) {
+        return tileX * tileSize - originX;
     }
 
-    private boolean isTileLitForCrab(int tileX, int tileY,
-                                     Position fishPos,
-                                     List<GameObject> objects) {
-        if (fishPos != null) {
-            double distFish = distanceTiles(tileX, tileY, fishPos.getX(), fishPos.getY());
-            if (distFish <= fishLightRadiusTiles) {
-                return true;
-            }
-        }
+    private double screenY(double tileY) {
+        return tileY * tileSize - originY;
+    }
 
-        if (objects != null) {
-            for (GameObject obj : objects) {
-                if (obj.getType() == ObjectType.MUSHROOM && obj.isActive()) {
-                    Position p = obj.getPosition();
-                    double distM = distanceTiles(tileX, tileY, p.getX(), p.getY());
-                    if (distM <= mushroomLightRadiusTiles) {
-                        return true;
-                    }
-                }
+    private void rebuildDarknessMask(int mapW, int mapH) {
+        if (darknessMask == null
+                || darknessMask.getWidth() != mapW
+                || darknessMask.getHeight() != mapH) {
+            darknessMask = new WritableImage(mapW, mapH);
+        }
+        PixelWriter pw = darknessMask.getPixelWriter();
+        for (int y = 0; y < mapH; y++) {
+            for (int x = 0; x < mapW; x++) {
+                pw.setArgb(x, y, lightMap.isLit(x, y) ? 0x00000000 : 0xFF000000);
             }
         }
-        return false;
-    }
-
-    private double distanceTiles(int x1, int y1, int x2, int y2) {
-        int dx = x1 - x2;
-        int dy = y1 - y2;
-        return Math.sqrt(dx * dx + dy * dy);
     }
 }
@@ -0,0 +1,139 @@
+package symbiosis.client.ui;
+
+import java.util.Arrays;
+
+public class InterpolationStore {
+
+    public static final int FISH = -1;
+    public static final int CRAB = -2;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final double SNAP_DISTANCE = 0.01;
+
+    private int[] keys = emptyKeys(32);
+    private int[] slots = new int[32];
+    private int size;
+
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private boolean[] present = new boolean[16];
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(present, false);
+        size = 0;
+    }
+
+    public void reset(int[] entityIds) {
+        clear();
+        slot(FISH, true);
+        slot(CRAB, true);
+        for (int id : entityIds) {
+            slot(id, true);
+        }
+    }
+
+    public void remove(int id) {
+        int slot = slot(id, false);
+        if (slot >= 0) {
+            present[slot] = false;
+        }
+    }
+
+    public boolean has(int id) {
+        int slot = slot(id, false);
+        return slot >= 0 && present[slot];
+    }
+
+    public double getX(int id) {
+        return x[slot(id, false)];
+    }
+
+    public double getY(int id) {
+        return y[slot(id, false)];
+    }
+
+    public boolean update(int id, double targetX, double targetY, double lerpFactor) {
+        int slot = slot(id, true);
+        if (!present[slot]) {
+            present[slot] = true;
+            x[slot] = targetX;
+            y[slot] = targetY;
+            return false;
+        }
+
+        double nx = approach(x[slot], targetX, lerpFactor);
+        double ny = approach(y[slot], targetY, lerpFactor);
+        x[slot] = nx;
+        y[slot] = ny;
+        return nx != targetX || ny != targetY;
+    }
+
+    private double approach(double current, double target, double lerpFactor) {
+        double next = current + (target - current) * lerpFactor;
+        return Math.abs(target - next) < SNAP_DISTANCE ? target : next;
+    }
+
+    private int slot(int id, boolean create) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == id) {
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        if (!create) {
+            return -1;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            return slot(id, true);
+        }
+        ensureCapacity(size);
+        keys[i] = id;
+        slots[i] = size;
+        present[size] = false;
+        return size++;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = emptyKeys(capacity);
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) {
+                continue;
+            }
+            int i = mix(oldKeys[j]) & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < present.length) {
+            return;
+        }
+        int capacity = Math.max(slot + 1, present.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        present = Arrays.copyOf(present, capacity);
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] emptyKeys(int capacity) {
+        int[] keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+}
@@ -0,0 +1,119 @@
+package symbiosis.client.ui;
+
+import symbiosis.client.net.EntityTable;
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.ObjectType;
+import symbiosis.common.model.Position;
+
+import java.util.Arrays;
+
+public class LightMap {
+
+    private final int[] fishStencil;
+    private final int[] mushroomStencil;
+
+    private CaveMap map;
+    private int width;
+    private int height;
+    private boolean[] lit = new boolean[0];
+
+    private Position fish;
+    private int[] mushroomCells = new int[16];
+    private int mushroomCount = -1;
+
+    public LightMap(int fishRadius, int mushroomRadius) {
+        this.fishStencil = stencil(fishRadius);
+        this.mushroomStencil = stencil(mushroomRadius);
+    }
+
+    public boolean isLit(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && lit[y * width + x];
+    }
+
+    public boolean update(CaveMap map, Position fish, EntityTable entities) {
+        boolean changed = map != this.map || !sameFish(fish);
+        changed |= collectMushrooms(map.getWidth(), entities);
+        if (!changed) {
+            return false;
+        }
+
+        if (map != this.map) {
+            this.map = map;
+            width = map.getWidth();
+            height = map.getHeight();
+            if (lit.length != width * height) {
+                lit = new boolean[width * height];
+            }
+        }
+        this.fish = fish;
+
+        Arrays.fill(lit, false);
+        if (fish != null) {
+            stamp(fish.getX(), fish.getY(), fishStencil);
+        }
+        for (int i = 0; i < mushroomCount; i++) {
+            int cell = mushroomCells[i];
+            stamp(cell % width, cell / width, mushroomStencil);
+        }
+        return true;
+    }
+
+    private boolean sameFish(Position fish) {
+        if (fish == null || this.fish == null) {
+            return fish == this.fish;
+        }
+        return fish.equals(this.fish);
+    }
+
+    private boolean collectMushrooms(int mapWidth, EntityTable entities) {
+        boolean changed = false;
+        int count = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            if (entities.getType(i) != ObjectType.MUSHROOM || !entities.isActive(i)) {
+                continue;
+            }
+            int cell = entities.getY(i) * mapWidth + entities.getX(i);
+            if (count == mushroomCells.length) {
+                mushroomCells = Arrays.copyOf(mushroomCells, count * 2);
+            }
+            if (count >= mushroomCount || mushroomCells[count] != cell) {
+                changed = true;
+            }
+            mushroomCells[count++] = cell;
+        }
+        if (count != mushroomCount) {
+            changed = true;
+        }
+        mushroomCount = count;
+        return changed;
+    }
+
+    private void stamp(int cx, int cy, int[] stencil) {
+        int radius = stencil.length - 1;
+        for (int dy = -radius; dy <= radius; dy++) {
+            int y = cy + dy;
+            if (y < 0 || y >= height) {
+                continue;
+            }
+            int half = stencil[Math.abs(dy)];
+            int from = Math.max(0, cx - half);
+            int to = Math.min(width - 1, cx + half);
+            if (from <= to) {
+                Arrays.fill(lit, y * width + from, y * width + to + 1, true);
+            }
+        }
+    }
+
+    private static int[] stencil(int radius) {
+        int[] half = new int[radius + 1];
+        int r2 = radius * radius;
+        for (int dy = 0; dy <= radius; dy++) {
+            int dx = 0;
+            while ((dx + 1) * (dx + 1) + dy * dy <= r2) {
+                dx++;
+            }
+            half[dy] = dx;
+        }
+        return half;
+    }
+}
@@ -1,36 +1,143 @@
 package symbiosis.client.ui;
 
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 
-public class Textures {
-
-    public final Image wall;
-    public final Image floorDark;
-    public final Image floorLight;
-    public final Image exit;
-    public final Image mushroom;
-    public final Image box;
-    public final Image crab;
-    public final Image fish;
-    public final Image floor;
-
-    public Textures() {
-        wall       = load("textures/wall.png");
-        floor      = load("textures/floor.png");
-        floorDark  = load("textures/floor_dark.png");
-        floorLight = load("textures/floor_light.png");
-        exit       = load("textures/exit.png");
-        mushroom   = load("textures/mushroom.png");
-        box        = load("textures/box.png");
-        crab       = load("textures/crab.png");
-        fish       = load("textures/fish.png");
-    }
-
-    private Image load(String path) {
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class Textures {
+
+    public enum Sprite {
+        WALL("textures/wall.png"),
+        FLOOR("textures/floor.png"),
+        FLOOR_DARK("textures/floor_dark.png"),
+        FLOOR_LIGHT("textures/floor_light.png"),
+        EXIT("textures/exit.png"),
+        MUSHROOM("textures/mushroom.png"),
+        BOX("textures/box.png"),
+        CRAB("textures/crab.png"),
+        FISH("textures/fish.png");
+
+        private final String path;
+
+        Sprite(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final Sprite[] SPRITES = Sprite.values();
+    private static final int MAX_CACHED_ATLASES = 4;
+
+    private final int[][] sources = new int[SPRITES.length][];
+    private final int[] sourceWidths = new int[SPRITES.length];
+    private final int[] sourceHeights = new int[SPRITES.length];
+    private final Map<Integer, WritableImage> atlases = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, WritableImage> eldest) {
+            return size() > MAX_CACHED_ATLASES;
+        }
+    };
+
+    private int tileSize;
+    private WritableImage atlas;
+
+    public Textures(int tileSize) {
+        for (Sprite sprite : SPRITES) {
+            decode(sprite);
+        }
+        setTileSize(tileSize);
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public void setTileSize(int tileSize) {
+        if (tileSize <= 0 || (tileSize == this.tileSize && atlas != null)) {
+            return;
+        }
+        this.tileSize = tileSize;
+        this.atlas = atlases.computeIfAbsent(tileSize, this::buildAtlas);
+    }
+
+    public Image getAtlas() {
+        return atlas;
+    }
+
+    public void draw(GraphicsContext gc, Sprite sprite, double x, double y) {
+        gc.drawImage(atlas, sprite.ordinal() * tileSize, 0, tileSize, tileSize, x, y, tileSize, tileSize);
+    }
+
+    public void draw(GraphicsContext gc, Sprite sprite, double x, double y, double size) {
+        gc.drawImage(atlas, sprite.ordinal() * tileSize, 0, tileSize, tileSize, x, y, size, size);
+    }
+
+    private WritableImage buildAtlas(int size) {
+        WritableImage image = new WritableImage(size * SPRITES.length, size);
+        PixelWriter writer = image.getPixelWriter();
+        int[] scaled = new int[size * size];
+
+        for (Sprite sprite : SPRITES) {
+            scale(sprite.ordinal(), size, scaled);
+            writer.setPixels(sprite.ordinal() * size, 0, size, size,
+                    PixelFormat.getIntArgbInstance(), scaled, 0, size);
+        }
+        return image;
+    }
+
+    private void decode(Sprite sprite) {
+        Image image = new Image(resolve(sprite.path));
+        if (image.isError()) {
+            throw new RuntimeException("Texture not loaded: " + sprite.path);
+        }
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        int[] argb = new int[w * h];
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+        sources[sprite.ordinal()] = argb;
+        sourceWidths[sprite.ordinal()] = w;
+        sourceHeights[sprite.ordinal()] = h;
+    }
+
+    private void scale(int sprite, int size, int[] dst) {
+        int[] src = sources[sprite];
+        int sw = sourceWidths[sprite];
+        int sh = sourceHeights[sprite];
+
+        for (int dy = 0; dy < size; dy++) {
+            int y0 = dy * sh / size;
+            int y1 = Math.max(y0 + 1, (dy + 1) * sh / size);
+            for (int dx = 0; dx < size; dx++) {
+                int x0 = dx * sw / size;
+                int x1 = Math.max(x0 + 1, (dx + 1) * sw / size);
+
+                long a = 0, r = 0, g = 0, b = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        int p = src[y * sw + x];
+                        int pa = p >>> 24;
+                        a += pa;
+                        r += ((p >> 16) & 0xFF) * pa;
+                        g += ((p >> 8) & 0xFF) * pa;
+                        b += (p & 0xFF) * pa;
+                    }
+                }
+                int n = (y1 - y0) * (x1 - x0);
+                dst[dy * size + dx] = a == 0 ? 0
+                        : (int) (a / n) << 24 | (int) (r / a) << 16 | (int) (g / a) << 8 | (int) (b / a);
+            }
+        }
+    }
+
+    private String resolve(String path) {
         var url = getClass().getClassLoader().getResource(path);
         if (url == null) {
             throw new RuntimeException("Texture not found: " + path);
         }
-        return new Image(url.toExternalForm());
+        return url.toExternalForm();
     }
 }
@@ -0,0 +1,139 @@
+package symbiosis.client.ui;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.TileType;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TileLayerCache {
+
+    public static final int CHUNK_TILES = 16;
+
+    private final Textures textures;
+    private final long maxPixels;
+    private final Map<Long, Image> chunks = new LinkedHashMap<>(32, 0.75f, true);
+    private long cachedPixels;
+
+    private CaveMap map;
+    private SkinTheme theme;
+    private Image atlas;
+    private int tileSize;
+    private Color gridColor;
+    private int[] exitCells = new int[0];
+
+    public TileLayerCache(Textures textures, long maxPixels) {
+        this.textures = textures;
+        this.maxPixels = maxPixels;
+    }
+
+    public void validate(CaveMap map, SkinTheme theme, Color gridColor) {
+        if (map == this.map && theme == this.theme && textures.getAtlas() == atlas
+                && textures.getTileSize() == tileSize) {
+            return;
+        }
+        if (map != this.map) {
+            exitCells = findExits(map);
+        }
+        this.map = map;
+        this.theme = theme;
+        this.gridColor = gridColor;
+        this.atlas = textures.getAtlas();
+        this.tileSize = textures.getTileSize();
+        chunks.clear();
+        cachedPixels = 0;
+    }
+
+    public int[] getExitCells() {
+        return exitCells;
+    }
+
+    public Image getChunk(int chunkX, int chunkY) {
+        long key = ((long) chunkY << 32) | (chunkX & 0xFFFFFFFFL);
+        Image chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = renderChunk(chunkX, chunkY);
+            chunks.put(key, chunk);
+            cachedPixels += pixels(chunk);
+            evictOverBudget();
+        }
+        return chunk;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Image> eldest = chunks.values().iterator();
+        while (cachedPixels > maxPixels && chunks.size() > 1) {
+            cachedPixels -= pixels(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    private static long pixels(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight();
+    }
+
+    private Image renderChunk(int chunkX, int chunkY) {
+        int ts = textures.getTileSize();
+        int x0 = chunkX * CHUNK_TILES;
+        int y0 = chunkY * CHUNK_TILES;
+        int w = Math.min(CHUNK_TILES, map.getWidth() - x0);
+        int h = Math.min(CHUNK_TILES, map.getHeight() - y0);
+
+        Canvas layer = new Canvas(w * ts, h * ts);
+        GraphicsContext lg = layer.getGraphicsContext2D();
+        lg.setStroke(gridColor);
+
+        byte[] row = new byte[map.getWidth()];
+        for (int y = 0; y < h; y++) {
+            map.copyRow(y0 + y, row, 0);
+            for (int x = 0; x < w; x++) {
+                double px = x * ts;
+                double py = y * ts;
+
+                switch (CaveMap.tileForCode(row[x0 + x])) {
+                    case WALL -> textures.draw(lg, Textures.Sprite.WALL, px, py);
+                    case EXIT -> {
+                        textures.draw(lg, Textures.Sprite.FLOOR_LIGHT, px, py);
+                        textures.draw(lg, Textures.Sprite.EXIT, px, py);
+                    }
+                    case LIGHT_TILE -> textures.draw(lg, Textures.Sprite.FLOOR_LIGHT, px, py);
+                    case DARK_TILE -> textures.draw(lg, Textures.Sprite.FLOOR_DARK, px, py);
+                    case EMPTY -> textures.draw(lg, Textures.Sprite.FLOOR, px, py);
+                }
+
+                lg.strokeRect(px, py, ts, ts);
+            }
+        }
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.BLACK);
+        return layer.snapshot(params, null);
+    }
+
+    private static int[] findExits(CaveMap map) {
+        int mapW = map.getWidth();
+        int[] exits = new int[16];
+        int count = 0;
+        byte exitCode = (byte) TileType.EXIT.ordinal();
+        byte[] row = new byte[mapW];
+        for (int y = 0; y < map.getHeight(); y++) {
+            map.copyRow(y, row, 0);
+            for (int x = 0; x < mapW; x++) {
+                if (row[x] == exitCode) {
+                    if (count == exits.length) {
+                        exits = Arrays.copyOf(exits, count * 2);
+                    }
+                    exits[count++] = y * mapW + x;
+                }
+            }
+        }
+        return Arrays.copyOf(exits, count);
+    }
+}
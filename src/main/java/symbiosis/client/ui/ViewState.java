@@ -1,46 +1,65 @@
 package symbiosis.client.ui;
 
-import symbiosis.common.model.GameObject;
+import symbiosis.client.net.MovementPredictor;
+import symbiosis.client.net.StateFrame;
+import symbiosis.common.model.CaveMap;
 import symbiosis.common.model.PlayerRole;
-import symbiosis.common.model.Position;
-import symbiosis.common.model.TileType;
+import symbiosis.common.net.InputMessage;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ViewState {
 
-    private volatile Position fishPosition;
-    private volatile Position crabPosition;
+    private final AtomicReference<WorldSnapshot> world = new AtomicReference<>(WorldSnapshot.EMPTY);
+    private final StateFrame authoritative = new StateFrame();
+    private final MovementPredictor predictor = new MovementPredictor();
 
     private volatile PlayerRole localRole;
 
     private volatile String clientId;
 
-    private volatile int mapWidth;
-    private volatile int mapHeight;
+    private volatile SkinTheme skinTheme = SkinTheme.CLASSIC;
 
-    private volatile TileType[][] tiles;
+    private final AtomicLong version = new AtomicLong();
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
 
-    private List<GameObject> objects = new ArrayList<>();
-    private volatile boolean levelCompleted;
+    public long getVersion() {
+        return version.get();
+    }
 
-    private volatile SkinTheme skinTheme = SkinTheme.CLASSIC;
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
 
-    public Position getFishPosition() {
-        return fishPosition;
+    private void changed() {
+        version.incrementAndGet();
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
     }
 
-    public void setFishPosition(Position fishPosition) {
-        this.fishPosition = fishPosition;
+    public WorldSnapshot getWorld() {
+        return world.get();
     }
 
-    public Position getCrabPosition() {
-        return crabPosition;
+    public synchronized void publishState(StateFrame frame) {
+        authoritative.copyFrom(frame);
+        publishPrediction();
     }
 
-    public void setCrabPosition(Position crabPosition) {
-        this.crabPosition = crabPosition;
+    public synchronized InputMessage predictInput(InputMessage.InputType type) {
+        InputMessage msg = predictor.record(clientId, type);
+        publishPrediction();
+        return msg;
+    }
+
+    private void publishPrediction() {
+        StateFrame shown = predictor.predict(authoritative, world.get().getMap(), localRole);
+        world.updateAndGet(w -> w.withState(shown));
+        changed();
     }
 
     public PlayerRole getLocalRole() {
@@ -49,6 +68,7 @@ public class ViewState {
 
     public void setLocalRole(PlayerRole localRole) {
         this.localRole = localRole;
+        changed();
     }
 
     public String getClientId() {
@@ -57,58 +77,29 @@ public class ViewState {
 
     public void setClientId(String clientId) {
         this.clientId = clientId;
+        changed();
     }
 
-    public Position getLocalPlayerPosition() {
-        if (localRole == PlayerRole.FISH) {
-            return fishPosition;
-        } else if (localRole == PlayerRole.CRAB) {
-            return crabPosition;
-        }
-        return null;
-    }
-
-    public Position getPartnerPosition() {
-        if (localRole == PlayerRole.FISH) {
-            return crabPosition;
-        } else if (localRole == PlayerRole.CRAB) {
-            return fishPosition;
-        }
-        return null;
-    }
-
-    public int getMapWidth() {
-        return mapWidth;
-    }
-
-    public int getMapHeight() {
-        return mapHeight;
-    }
-
-    public TileType[][] getTiles() {
-        return tiles;
-    }
-
-    public void setMap(TileType[][] tiles, int width, int height) {
-        this.tiles = tiles;
-        this.mapWidth = width;
-        this.mapHeight = height;
-    }
-
-    public List<GameObject> getObjects() {
-        return objects;
+    public CaveMap getMap() {
+        return world.get().getMap();
     }
 
-    public void setObjects(List<GameObject> objects) {
-        this.objects = objects;
+    public synchronized void loadLevel(CaveMap map, int[] entityIds) {
+        authoritative.clear();
+        predictor.clear();
+        world.updateAndGet(w -> w.withLevel(map, entityIds));
+        changed();
     }
 
     public boolean isLevelCompleted() {
-        return levelCompleted;
+        return world.get().isLevelCompleted();
     }
 
-    public void setLevelCompleted(boolean levelCompleted) {
-        this.levelCompleted = levelCompleted;
+    public synchronized void clearWorld() {
+        authoritative.clear();
+        predictor.clear();
+        world.updateAndGet(WorldSnapshot::cleared);
+        changed();
     }
 
     public SkinTheme getSkinTheme() {
@@ -117,5 +108,6 @@ public class ViewState {
 
     public void setSkinTheme(SkinTheme skinTheme) {
         this.skinTheme = skinTheme;
+        changed();
     }
 }
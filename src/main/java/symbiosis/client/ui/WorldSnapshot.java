@@ -0,0 +1,91 @@
+package symbiosis.client.ui;
+
+import symbiosis.client.net.EntityTable;
+import symbiosis.client.net.StateFrame;
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.PlayerRole;
+import symbiosis.common.model.Position;
+
+public final class WorldSnapshot {
+
+    public static final WorldSnapshot EMPTY =
+            new WorldSnapshot(0, null, new int[0], null, null, false, new EntityTable());
+
+    private final long version;
+    private final CaveMap map;
+    private final int[] levelEntityIds;
+    private final Position fishPosition;
+    private final Position crabPosition;
+    private final boolean levelCompleted;
+    private final EntityTable entities;
+
+    private WorldSnapshot(long version, CaveMap map, int[] levelEntityIds, Position fishPosition,
+                          Position crabPosition, boolean levelCompleted, EntityTable entities) {
+        this.version = version;
+        this.map = map;
+        this.levelEntityIds = levelEntityIds;
+        this.fishPosition = fishPosition;
+        this.crabPosition = crabPosition;
+        this.levelCompleted = levelCompleted;
+        this.entities = entities;
+    }
+
+    public WorldSnapshot withState(StateFrame frame) {
+        return new WorldSnapshot(version + 1, map, levelEntityIds, frame.getFishPosition(),
+                frame.getCrabPosition(), frame.isLevelCompleted(), frame.getEntities().copy());
+    }
+
+    public WorldSnapshot withLevel(CaveMap map, int[] levelEntityIds) {
+        return new WorldSnapshot(version + 1, map, levelEntityIds, null, null, false, EMPTY.entities);
+    }
+
+    public WorldSnapshot cleared() {
+        return new WorldSnapshot(version + 1, map, levelEntityIds, null, null, false, EMPTY.entities);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public CaveMap getMap() {
+        return map;
+    }
+
+    public int[] getLevelEntityIds() {
+        return levelEntityIds;
+    }
+
+    public Position getFishPosition() {
+        return fishPosition;
+    }
+
+    public Position getCrabPosition() {
+        return crabPosition;
+    }
+
+    public boolean isLevelCompleted() {
+        return levelCompleted;
+    }
+
+    public EntityTable getEntities() {
+        return entities;
+    }
+
+    public Position positionOf(PlayerRole role) {
+        if (role == PlayerRole.FISH) {
+            return fishPosition;
+        } else if (role == PlayerRole.CRAB) {
+            return crabPosition;
+        }
+        return null;
+    }
+
+    public Position partnerOf(PlayerRole role) {
+        if (role == PlayerRole.FISH) {
+            return crabPosition;
+        } else if (role == PlayerRole.CRAB) {
+            return fishPosition;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,348 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class CaveGenerator {
+
+    private static final int MAX_ATTEMPTS = 64;
+    private static final int SMOOTHING_PASSES = 4;
+    private static final double WALL_FILL = 0.42;
+    private static final int MAX_DEFAULT_BOXES = 8;
+    private static final int MAX_DEFAULT_PUSHES = 3;
+
+    private final int width;
+    private final int height;
+    private final int boxCount;
+    private final int mushroomCount;
+    private final int minPushes;
+
+    public CaveGenerator(int width, int height, int boxCount, int mushroomCount) {
+        this(width, height, boxCount, mushroomCount, boxCount > 0 ? 1 : 0);
+    }
+
+    public CaveGenerator(int width, int height, int boxCount, int mushroomCount, int minPushes) {
+        if (width < 8 || height < 6) {
+            throw new IllegalArgumentException("Generated caves must be at least 8x6, got " + width + "x" + height);
+        }
+        if (minPushes > 0 && boxCount <= 0) {
+            throw new IllegalArgumentException("Caves without boxes cannot require " + minPushes + " pushes");
+        }
+        this.width = width;
+        this.height = height;
+        this.boxCount = Math.max(0, boxCount);
+        this.mushroomCount = Math.max(0, mushroomCount);
+        this.minPushes = Math.max(0, minPushes);
+    }
+
+    public static CaveGenerator forSize(int width, int height) {
+        int area = (width - 2) * (height - 2);
+        int boxes = Math.clamp(area / 40, 1, MAX_DEFAULT_BOXES);
+        int pushes = Math.clamp(area / 80, 1, MAX_DEFAULT_PUSHES);
+        return new CaveGenerator(width, height, boxes, Math.max(1, area / 50), pushes);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getMinPushes() {
+        return minPushes;
+    }
+
+    public LevelTemplate generate(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LevelDefinition definition = layout(random, seed);
+            if (definition == null) {
+                continue;
+            }
+            LevelTemplate template = LevelTemplate.compile(definition);
+            Solution solution = LevelValidator.validate(template, LevelValidator.DEFAULT_STATE_LIMIT);
+            if (solution.isSolved() && solution.getPushes() >= minPushes) {
+                return template;
+            }
+        }
+        throw new IllegalStateException("No solvable " + width + "x" + height + " cave with at least "
+                + minPushes + " pushes for seed " + seed);
+    }
+
+    private LevelDefinition layout(SplittableRandom random, long seed) {
+        boolean[] wall = new boolean[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                wall[y * width + x] = isBorder(x, y) || random.nextDouble() < WALL_FILL;
+            }
+        }
+        for (int pass = 0; pass < SMOOTHING_PASSES; pass++) {
+            wall = smooth(wall);
+        }
+
+        int[] region = largestRegion(wall);
+        if (region.length < (width - 2) * (height - 2) / 3) {
+            return null;
+        }
+        boolean[] inRegion = new boolean[wall.length];
+        for (int cell : region) {
+            inRegion[cell] = true;
+        }
+
+        char[] cells = new char[wall.length];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = inRegion[i] ? '.' : '#';
+        }
+
+        int fish = region[random.nextInt(region.length)];
+        int[] fromFish = distances(inRegion, fish);
+        int exit = farthest(region, fromFish);
+        int[] fromExit = distances(inRegion, exit);
+
+        int crab = fish;
+        for (int i = 0; i < 16; i++) {
+            int candidate = region[random.nextInt(region.length)];
+            if (candidate != exit && fromExit[candidate] > fromExit[crab] / 2 && candidate != fish) {
+                crab = candidate;
+                break;
+            }
+        }
+        if (crab == fish) {
+            return null;
+        }
+
+        int gates = Math.min(boxCount, minPushes);
+        int farthestGate = Math.min(fromExit[fish], fromExit[crab]) - 2;
+        for (int gate = 0; gate < gates; gate++) {
+            int nearest = 3 + 3 * (gates - 1 - gate);
+            if (farthestGate < nearest) {
+                return null;
+            }
+            int distance = nearest + random.nextInt(farthestGate - nearest + 1);
+            if (!buildGate(random, cells, inRegion, fromExit, distance)) {
+                return null;
+            }
+            farthestGate = distance - 3;
+        }
+        if (gates > 0) {
+            int[] reachable = distances(inRegion, exit);
+            for (int cell : region) {
+                if (reachable[cell] < 0) {
+                    inRegion[cell] = false;
+                    cells[cell] = '#';
+                }
+            }
+            if (!inRegion[fish] || !inRegion[crab]) {
+                return null;
+            }
+        }
+
+        boolean[] reserved = new boolean[wall.length];
+        reserveAround(reserved, fish);
+        reserveAround(reserved, crab);
+        reserveAround(reserved, exit);
+
+        cells[exit] = 'E';
+        for (int n : neighbours(exit)) {
+            if (inRegion[n] && cells[n] == '.' && n != fish && n != crab) {
+                cells[n] = 'E';
+                break;
+            }
+        }
+
+        paintPatches(random, cells, inRegion, 'D');
+        paintPatches(random, cells, inRegion, 'L');
+
+        List<Integer> free = new ArrayList<>();
+        for (int cell : region) {
+            if (inRegion[cell] && !reserved[cell] && cells[cell] != 'E' && cells[cell] != 'B') {
+                free.add(cell);
+            }
+        }
+        placeObjects(random, cells, free, 'M', mushroomCount);
+        placeObjects(random, cells, free, 'B', boxCount - gates);
+
+        String[] rows = new String[height];
+        for (int y = 0; y < height; y++) {
+            rows[y] = new String(cells, y * width, width);
+        }
+
+        int difficulty = Math.min(6, 1 + boxCount / 2 + (width * height) / 200);
+        return new LevelDefinition("Cave " + Long.toHexString(seed), difficulty,
+                Position.of(fish % width, fish / width), Position.of(crab % width, crab / width), rows);
+    }
+
+    private boolean isBorder(int x, int y) {
+        return x == 0 || y == 0 || x == width - 1 || y == height - 1;
+    }
+
+    private boolean[] smooth(boolean[] wall) {
+        boolean[] next = new boolean[wall.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = y * width + x;
+                if (isBorder(x, y)) {
+                    next[i] = true;
+                    continue;
+                }
+                int walls = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        if ((dx != 0 || dy != 0) && wall[(y + dy) * width + x + dx]) {
+                            walls++;
+                        }
+                    }
+                }
+                next[i] = walls >= 5 || (wall[i] && walls == 4);
+            }
+        }
+        return next;
+    }
+
+    private int[] largestRegion(boolean[] wall) {
+        int[] label = new int[wall.length];
+        int[] queue = new int[wall.length];
+        int bestLabel = 0;
+        int bestSize = 0;
+        int nextLabel = 0;
+
+        for (int start = 0; start < wall.length; start++) {
+            if (wall[start] || label[start] != 0) {
+                continue;
+            }
+            nextLabel++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            label[start] = nextLabel;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int n : neighbours(cell)) {
+                    if (!wall[n] && label[n] == 0) {
+                        label[n] = nextLabel;
+                        queue[tail++] = n;
+                    }
+                }
+            }
+            if (tail > bestSize) {
+                bestSize = tail;
+                bestLabel = nextLabel;
+            }
+        }
+
+        int[] region = new int[bestSize];
+        for (int i = 0, r = 0; i < label.length && bestSize > 0; i++) {
+            if (label[i] == bestLabel) {
+                region[r++] = i;
+            }
+        }
+        return region;
+    }
+
+    private int[] distances(boolean[] inRegion, int from) {
+        int[] dist = new int[inRegion.length];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[inRegion.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        dist[from] = 0;
+        while (head < tail) {
+            int cell = queue[head++];
+            for (int n : neighbours(cell)) {
+                if (inRegion[n] && dist[n] < 0) {
+                    dist[n] = dist[cell] + 1;
+                    queue[tail++] = n;
+                }
+            }
+        }
+        return dist;
+    }
+
+    private boolean buildGate(SplittableRandom random, char[] cells, boolean[] inRegion, int[] fromExit, int distance) {
+        List<Integer> front = new ArrayList<>();
+        List<Integer> gaps = new ArrayList<>();
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (!inRegion[cell] || fromExit[cell] != distance) {
+                continue;
+            }
+            front.add(cell);
+            int[] around = neighbours(cell);
+            for (int d = 0; d < 4; d++) {
+                int behind = around[d ^ 1];
+                int ahead = around[d];
+                if (inRegion[behind] && inRegion[ahead]
+                        && fromExit[behind] == distance + 1 && fromExit[ahead] == distance - 1) {
+                    gaps.add(cell);
+                    break;
+                }
+            }
+        }
+        if (gaps.isEmpty()) {
+            return false;
+        }
+        int gap = gaps.get(random.nextInt(gaps.size()));
+        for (int cell : front) {
+            if (cell != gap) {
+                inRegion[cell] = false;
+                cells[cell] = '#';
+            }
+        }
+        cells[gap] = 'B';
+        return true;
+    }
+
+    private int farthest(int[] region, int[] dist) {
+        int best = region[0];
+        for (int cell : region) {
+            if (dist[cell] > dist[best]) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    private int[] neighbours(int cell) {
+        return new int[]{cell - width, cell + width, cell - 1, cell + 1};
+    }
+
+    private void reserveAround(boolean[] reserved, int cell) {
+        reserved[cell] = true;
+        for (int n : neighbours(cell)) {
+            reserved[n] = true;
+        }
+    }
+
+    private void paintPatches(SplittableRandom random, char[] cells, boolean[] inRegion, char tile) {
+        int patches = 1 + (width * height) / 150;
+        for (int p = 0; p < patches; p++) {
+            int cx = 1 + random.nextInt(width - 2);
+            int cy = 1 + random.nextInt(height - 2);
+            int radius = 1 + random.nextInt(2);
+            for (int y = cy - radius; y <= cy + radius; y++) {
+                for (int x = cx - radius; x <= cx + radius; x++) {
+                    if (x <= 0 || y <= 0 || x >= width - 1 || y >= height - 1) {
+                        continue;
+                    }
+                    int i = y * width + x;
+                    if (inRegion[i] && cells[i] == '.') {
+                        cells[i] = tile;
+                    }
+                }
+            }
+        }
+    }
+
+    private void placeObjects(SplittableRandom random, char[] cells, List<Integer> free, char object, int count) {
+        for (int placed = 0; placed < count && !free.isEmpty(); placed++) {
+            int cell = free.remove(random.nextInt(free.size()));
+            cells[cell] = object;
+        }
+    }
+}
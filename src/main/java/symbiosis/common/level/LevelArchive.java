@@ -0,0 +1,231 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.ObjectType;
+import symbiosis.common.model.Position;
+import symbiosis.common.model.TileType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public final class LevelArchive {
+
+    public static final int MAGIC = 0x53594C41;
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".sla";
+
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+    private static final int TILE_TYPE_COUNT = TileType.values().length;
+    private static final int HEADER_BYTES = 12;
+    private static final int OBJECT_BYTES = 1 + 2 * Integer.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer data;
+    private final int count;
+
+    private LevelArchive(Path path, MappedByteBuffer data) {
+        this.path = path;
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a level archive: " + path);
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported level archive version " + data.getInt(4) + ": " + path);
+        }
+        this.count = data.getInt(8);
+        if (count < 0 || HEADER_BYTES + (long) count * Long.BYTES > data.capacity()) {
+            throw new IllegalArgumentException("Corrupt level archive index: " + path);
+        }
+    }
+
+    public static LevelArchive open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new LevelArchive(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map level archive " + path, e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public LevelTemplate load(int index) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("No level " + index + " in " + path);
+        }
+        ByteBuffer in = entry(index);
+        try {
+            byte[] nameBytes = new byte[in.getShort() & 0xFFFF];
+            in.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            int difficulty = in.getInt();
+            int fishX = in.getInt();
+            int fishY = in.getInt();
+            int crabX = in.getInt();
+            int crabY = in.getInt();
+            int width = in.getInt();
+            int height = in.getInt();
+            if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+                throw corrupt(index, "bad map size " + width + "x" + height);
+            }
+            checkInside(index, "fish spawn", fishX, fishY, width, height);
+            checkInside(index, "crab spawn", crabX, crabY, width, height);
+
+            int objectCount = in.getInt();
+            if (objectCount < 0 || objectCount > in.remaining() / OBJECT_BYTES) {
+                throw corrupt(index, "bad object count " + objectCount);
+            }
+            byte[] types = new byte[objectCount];
+            int[] xs = new int[objectCount];
+            int[] ys = new int[objectCount];
+            for (int i = 0; i < objectCount; i++) {
+                int type = in.get() & 0xFF;
+                if (type >= OBJECT_TYPES.length) {
+                    throw corrupt(index, "bad object type " + type);
+                }
+                types[i] = (byte) type;
+                xs[i] = in.getInt();
+                ys[i] = in.getInt();
+                checkInside(index, "object " + i, xs[i], ys[i], width, height);
+            }
+
+            int area = width * height;
+            if (in.remaining() < area) {
+                throw corrupt(index, "truncated tile plane");
+            }
+            for (int end = in.position() + area, i = in.position(); i < end; i++) {
+                int tile = in.get(i) & 0xFF;
+                if (tile >= TILE_TYPE_COUNT) {
+                    throw corrupt(index, "bad tile " + tile);
+                }
+            }
+
+            CaveMap map = CaveMap.wrap(width, height, in);
+            return new LevelTemplate(name, difficulty, Position.of(fishX, fishY), Position.of(crabX, crabY),
+                    map, types, xs, ys);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated level " + index + " in " + path, e);
+        }
+    }
+
+    public String name(int index) {
+        ByteBuffer in = header(index);
+        byte[] nameBytes = new byte[in.getShort() & 0xFFFF];
+        in.get(nameBytes);
+        return new String(nameBytes, StandardCharsets.UTF_8);
+    }
+
+    public int difficulty(int index) {
+        ByteBuffer in = header(index);
+        return in.getInt(in.position() + Short.BYTES + (in.getShort(in.position()) & 0xFFFF));
+    }
+
+    private ByteBuffer header(int index) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("No level " + index + " in " + path);
+        }
+        try {
+            ByteBuffer in = entry(index);
+            int nameEnd = in.position() + Short.BYTES + (in.getShort(in.position()) & 0xFFFF);
+            if (nameEnd + Integer.BYTES > in.limit()) {
+                throw corrupt(index, "truncated header");
+            }
+            return in;
+        } catch (IndexOutOfBoundsException e) {
+            throw corrupt(index, "truncated header");
+        }
+    }
+
+    private ByteBuffer entry(int index) {
+        long offset = data.getLong(HEADER_BYTES + index * Long.BYTES);
+        if (offset < HEADER_BYTES || offset >= data.capacity()) {
+            throw new IllegalArgumentException("Corrupt offset for level " + index + " in " + path);
+        }
+        return data.duplicate().position((int) offset);
+    }
+
+    private void checkInside(int index, String what, int x, int y, int width, int height) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw corrupt(index, what + " at " + x + "," + y + " is outside the map");
+        }
+    }
+
+    private IllegalArgumentException corrupt(int index, String reason) {
+        return new IllegalArgumentException("Corrupt level " + index + " in " + path + ": " + reason);
+    }
+
+    public static void write(LevelCatalog catalog, Path out) throws IOException {
+        int count = catalog.size();
+        long[] offsets = new long[count];
+        Path tmp = out.resolveSibling(out.getFileName() + ".tmp");
+
+        try (OutputStream file = Files.newOutputStream(tmp);
+             DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(file))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                dos.writeLong(0);
+            }
+
+            for (int i = 0; i < count; i++) {
+                offsets[i] = dos.size();
+                writeLevel(dos, catalog.getTemplate(i));
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer index = ByteBuffer.allocate(count * Long.BYTES);
+            for (long offset : offsets) {
+                index.putLong(offset);
+            }
+            index.flip();
+            channel.write(index, HEADER_BYTES);
+        }
+        Files.move(tmp, out, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeLevel(DataOutputStream dos, LevelTemplate level) throws IOException {
+        byte[] name = level.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > 0xFFFF) {
+            throw new IllegalArgumentException("Level name too long: " + level.getName());
+        }
+        dos.writeShort(name.length);
+        dos.write(name);
+        dos.writeInt(level.getDifficulty());
+        dos.writeInt(level.getFishSpawn().getX());
+        dos.writeInt(level.getFishSpawn().getY());
+        dos.writeInt(level.getCrabSpawn().getX());
+        dos.writeInt(level.getCrabSpawn().getY());
+
+        CaveMap map = level.getMap();
+        dos.writeInt(map.getWidth());
+        dos.writeInt(map.getHeight());
+
+        dos.writeInt(level.getObjectCount());
+        for (int i = 0; i < level.getObjectCount(); i++) {
+            dos.writeByte(level.getObjectType(i).ordinal());
+            dos.writeInt(level.getObjectX(i));
+            dos.writeInt(level.getObjectY(i));
+        }
+
+        byte[] row = new byte[map.getWidth()];
+        for (int y = 0; y < map.getHeight(); y++) {
+            map.copyRow(y, row, 0);
+            dos.write(row);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package symbiosis.common.level;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class LevelArchiveMain {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: LevelArchiveMain <out" + LevelArchive.EXTENSION + "> [levels-dir]");
+            System.exit(1);
+        }
+
+        Path out = Path.of(args[0]);
+        LevelCatalog catalog = args.length > 1
+                ? LevelCatalog.fromDirectory(Path.of(args[1]))
+                : LevelCatalog.fromClasspath();
+
+        long start = System.nanoTime();
+        LevelArchive.write(catalog, out);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + catalog.size() + " levels to " + out + " in " + ms + " ms");
+    }
+}
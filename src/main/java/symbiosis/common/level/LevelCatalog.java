@@ -0,0 +1,232 @@
+package symbiosis.common.level;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+public class LevelCatalog {
+
+    public static final String DIRECTORY_PROPERTY = "symbiosis.levels";
+    public static final String INDEX_FILE = "index.txt";
+    public static final int GENERATED_LEVEL = -2;
+
+    private static final String CLASSPATH_ROOT = "levels/";
+    private static final int DEFAULT_CACHE_SIZE = 64;
+
+    private static volatile LevelCatalog shared;
+
+    private final int size;
+    private final IntFunction<LevelTemplate> loader;
+    private final IntFunction<Header> headerLoader;
+    private final Header[] headers;
+    private final Map<Integer, LevelTemplate> cache;
+
+    private LevelCatalog(int size, IntFunction<LevelTemplate> loader, IntFunction<Header> headerLoader,
+                         int cacheSize) {
+        this.size = size;
+        this.loader = loader;
+        this.headerLoader = headerLoader;
+        this.headers = new Header[size];
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LevelTemplate> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static LevelCatalog shared() {
+        LevelCatalog catalog = shared;
+        if (catalog == null) {
+            synchronized (LevelCatalog.class) {
+                catalog = shared;
+                if (catalog == null) {
+                    String location = System.getProperty(DIRECTORY_PROPERTY);
+                    catalog = location != null ? fromPath(Path.of(location)) : fromClasspath();
+                    shared = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    public static void setShared(LevelCatalog catalog) {
+        shared = catalog;
+    }
+
+    public static LevelCatalog fromPath(Path location) {
+        return Files.isDirectory(location) ? fromDirectory(location) : fromArchive(location);
+    }
+
+    public static LevelCatalog fromClasspath() {
+        return fromFiles(null, DEFAULT_CACHE_SIZE);
+    }
+
+    public static LevelCatalog fromDirectory(Path directory) {
+        return fromDirectory(directory, DEFAULT_CACHE_SIZE);
+    }
+
+    public static LevelCatalog fromDirectory(Path directory, int cacheSize) {
+        return fromFiles(directory, cacheSize);
+    }
+
+    public static LevelCatalog fromArchive(Path archivePath) {
+        return fromArchive(archivePath, DEFAULT_CACHE_SIZE);
+    }
+
+    public static LevelCatalog fromArchive(Path archivePath, int cacheSize) {
+        LevelArchive archive = LevelArchive.open(archivePath);
+        return new LevelCatalog(archive.size(), archive::load,
+                index -> new Header(archive.name(index), archive.difficulty(index)), cacheSize);
+    }
+
+    private static LevelCatalog fromFiles(Path directory, int cacheSize) {
+        List<String> files = readIndex(readLines(directory, INDEX_FILE));
+        return new LevelCatalog(files.size(), index -> {
+            String file = files.get(index);
+            return LevelTemplate.compile(LevelDefinition.parse(file, readLines(directory, file)));
+        }, index -> readHeader(directory, files.get(index)), cacheSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LevelDefinition get(int index) {
+        return getTemplate(index).getDefinition();
+    }
+
+    public LevelTemplate getTemplate(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("No level " + index);
+        }
+        synchronized (cache) {
+            LevelTemplate level = cache.get(index);
+            if (level != null) {
+                return level;
+            }
+        }
+
+        LevelTemplate loaded = loader.apply(index);
+
+        synchronized (cache) {
+            LevelTemplate existing = cache.putIfAbsent(index, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    /**
+     * Returns the display name of a level without compiling it: archives read
+     * the name from the entry header and level files are read up to "map:".
+     */
+    public String getName(int index) {
+        return header(index).name;
+    }
+
+    public int getDifficulty(int index) {
+        return header(index).difficulty;
+    }
+
+    private Header header(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("No level " + index);
+        }
+        synchronized (headers) {
+            if (headers[index] != null) {
+                return headers[index];
+            }
+        }
+        Header header;
+        synchronized (cache) {
+            LevelTemplate level = cache.get(index);
+            header = level != null ? new Header(level.getName(), level.getDifficulty()) : null;
+        }
+        if (header == null) {
+            header = headerLoader.apply(index);
+        }
+        synchronized (headers) {
+            headers[index] = header;
+        }
+        return header;
+    }
+
+    private static Header readHeader(Path directory, String file) {
+        String name = file;
+        int difficulty = 1;
+        try (BufferedReader reader = open(directory, file)) {
+            String raw;
+            while ((raw = reader.readLine()) != null) {
+                String line = raw.strip();
+                if (line.isEmpty() || line.startsWith("//")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                if (colon < 0) {
+                    throw new IllegalArgumentException(file + ": expected 'key: value', got '" + line + "'");
+                }
+                String key = line.substring(0, colon).strip().toLowerCase();
+                String value = line.substring(colon + 1).strip();
+                if (key.equals("map")) {
+                    break;
+                } else if (key.equals("name")) {
+                    name = value;
+                } else if (key.equals("difficulty")) {
+                    difficulty = Integer.parseInt(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read level file " + file, e);
+        }
+        return new Header(name, difficulty);
+    }
+
+    private static List<String> readIndex(List<String> lines) {
+        List<String> files = new ArrayList<>();
+        for (String line : lines) {
+            String name = line.strip();
+            if (!name.isEmpty() && !name.startsWith("//")) {
+                files.add(name);
+            }
+        }
+        return files;
+    }
+
+    private static List<String> readLines(Path directory, String file) {
+        try (BufferedReader reader = open(directory, file)) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read level file " + file, e);
+        }
+    }
+
+    private static BufferedReader open(Path directory, String file) throws IOException {
+        if (directory != null) {
+            return Files.newBufferedReader(directory.resolve(file), StandardCharsets.UTF_8);
+        }
+        InputStream in = LevelCatalog.class.getClassLoader().getResourceAsStream(CLASSPATH_ROOT + file);
+        if (in == null) {
+            throw new IllegalArgumentException("Level resource not found: " + CLASSPATH_ROOT + file);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static final class Header {
+        final String name;
+        final int difficulty;
+
+        Header(String name, int difficulty) {
+            this.name = name;
+            this.difficulty = difficulty;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.Position;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class LevelDefinition {
+
+    private final String name;
+    private final int difficulty;
+    private final Position fishSpawn;
+    private final Position crabSpawn;
+    private final String[] rows;
+
+    public LevelDefinition(String name, int difficulty, Position fishSpawn, Position crabSpawn, String[] rows) {
+        if (rows.length == 0) {
+            throw new IllegalArgumentException("Level " + name + " has no map rows");
+        }
+        int width = rows[0].length();
+        for (String row : rows) {
+            if (row.length() != width) {
+                throw new IllegalArgumentException("Level " + name + " has rows of different width");
+            }
+        }
+        this.name = name;
+        this.difficulty = difficulty;
+        this.fishSpawn = fishSpawn;
+        this.crabSpawn = crabSpawn;
+        this.rows = rows.clone();
+    }
+
+    public static LevelDefinition parse(String source, List<String> lines) {
+        String name = source;
+        int difficulty = 1;
+        Position fish = Position.of(1, 1);
+        Position crab = Position.of(2, 5);
+        List<String> rows = new ArrayList<>();
+        boolean inMap = false;
+
+        for (String raw : lines) {
+            String line = raw.strip();
+            if (inMap) {
+                if (!line.isEmpty()) {
+                    rows.add(line);
+                }
+                continue;
+            }
+            if (line.isEmpty() || line.startsWith("//")) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException(source + ": expected 'key: value', got '" + line + "'");
+            }
+            String key = line.substring(0, colon).strip().toLowerCase();
+            String value = line.substring(colon + 1).strip();
+            switch (key) {
+                case "name" -> name = value;
+                case "difficulty" -> difficulty = Integer.parseInt(value);
+                case "fish" -> fish = Position.fromString(value.replace(" ", ""));
+                case "crab" -> crab = Position.fromString(value.replace(" ", ""));
+                case "map" -> inMap = true;
+                default -> throw new IllegalArgumentException(source + ": unknown key '" + key + "'");
+            }
+        }
+
+        return new LevelDefinition(name, difficulty, fish, crab, rows.toArray(new String[0]));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public Position getFishSpawn() {
+        return fishSpawn;
+    }
+
+    public Position getCrabSpawn() {
+        return crabSpawn;
+    }
+
+    public int getWidth() {
+        return rows[0].length();
+    }
+
+    public int getHeight() {
+        return rows.length;
+    }
+
+    public String getRow(int y) {
+        return rows[y];
+    }
+
+    public String[] getRows() {
+        return rows.clone();
+    }
+}
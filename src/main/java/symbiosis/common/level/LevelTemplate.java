@@ -0,0 +1,168 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.GameState;
+import symbiosis.common.model.ObjectType;
+import symbiosis.common.model.OccupancyGrid;
+import symbiosis.common.model.Position;
+
+import java.util.Arrays;
+
+public final class LevelTemplate {
+
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+
+    private final String name;
+    private final int difficulty;
+    private final Position fishSpawn;
+    private final Position crabSpawn;
+    private final CaveMap map;
+
+    private final byte[] objectTypes;
+    private final int[] objectX;
+    private final int[] objectY;
+
+    private final OccupancyGrid occupancy;
+
+    private volatile String[] rows;
+
+    LevelTemplate(String name, int difficulty, Position fishSpawn, Position crabSpawn, CaveMap map,
+                  byte[] objectTypes, int[] objectX, int[] objectY) {
+        this.name = name;
+        this.difficulty = difficulty;
+        this.fishSpawn = fishSpawn;
+        this.crabSpawn = crabSpawn;
+        this.map = map;
+        this.objectTypes = objectTypes;
+        this.objectX = objectX;
+        this.objectY = objectY;
+
+        this.occupancy = new OccupancyGrid(map.getWidth(), map.getHeight());
+        for (int i = 0; i < objectTypes.length; i++) {
+            occupancy.add(i, OBJECT_TYPES[objectTypes[i]], objectX[i], objectY[i]);
+        }
+    }
+
+    public static LevelTemplate compile(LevelDefinition definition) {
+        int width = definition.getWidth();
+        int height = definition.getHeight();
+
+        int count = 0;
+        byte[] types = new byte[16];
+        int[] xs = new int[16];
+        int[] ys = new int[16];
+
+        for (int y = 0; y < height; y++) {
+            String row = definition.getRow(y);
+            for (int x = 0; x < width; x++) {
+                ObjectType type = switch (row.charAt(x)) {
+                    case 'M' -> ObjectType.MUSHROOM;
+                    case 'B' -> ObjectType.BOX;
+                    default -> null;
+                };
+                if (type == null) {
+                    continue;
+                }
+                if (count == types.length) {
+                    types = Arrays.copyOf(types, count * 2);
+                    xs = Arrays.copyOf(xs, count * 2);
+                    ys = Arrays.copyOf(ys, count * 2);
+                }
+                types[count] = (byte) type.ordinal();
+                xs[count] = x;
+                ys[count] = y;
+                count++;
+            }
+        }
+
+        return new LevelTemplate(definition.getName(), definition.getDifficulty(),
+                definition.getFishSpawn(), definition.getCrabSpawn(), CaveMap.fromRows(definition.getRows()),
+                Arrays.copyOf(types, count), Arrays.copyOf(xs, count), Arrays.copyOf(ys, count));
+    }
+
+    public LevelDefinition getDefinition() {
+        return new LevelDefinition(name, difficulty, fishSpawn, crabSpawn, getRows());
+    }
+
+    public String[] getRows() {
+        String[] result = rows;
+        if (result == null) {
+            result = buildRows();
+            rows = result;
+        }
+        return result;
+    }
+
+    private String[] buildRows() {
+        int width = map.getWidth();
+        int height = map.getHeight();
+        char[][] cells = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                cells[y][x] = map.getTile(x, y).toChar();
+            }
+        }
+        for (int i = 0; i < objectTypes.length; i++) {
+            if (map.isInside(objectX[i], objectY[i])) {
+                cells[objectY[i]][objectX[i]] = switch (OBJECT_TYPES[objectTypes[i]]) {
+                    case MUSHROOM -> 'M';
+                    case BOX -> 'B';
+                    case ROCK -> 'R';
+                };
+            }
+        }
+        String[] rows = new String[height];
+        for (int y = 0; y < height; y++) {
+            rows[y] = new String(cells[y]);
+        }
+        return rows;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public CaveMap getMap() {
+        return map;
+    }
+
+    public Position getFishSpawn() {
+        return fishSpawn;
+    }
+
+    public Position getCrabSpawn() {
+        return crabSpawn;
+    }
+
+    public int getObjectCount() {
+        return objectTypes.length;
+    }
+
+    public ObjectType getObjectType(int index) {
+        return OBJECT_TYPES[objectTypes[index]];
+    }
+
+    public int getObjectX(int index) {
+        return objectX[index];
+    }
+
+    public int getObjectY(int index) {
+        return objectY[index];
+    }
+
+    public GameState newGameState(int firstEntityId) {
+        int[] ids = new int[objectTypes.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = firstEntityId + i;
+        }
+        return new GameState(map, ids, objectTypes, objectX, objectY);
+    }
+
+    public OccupancyGrid newOccupancy() {
+        return occupancy.copy();
+    }
+}
@@ -0,0 +1,23 @@
+package symbiosis.common.level;
+
+public final class LevelValidator {
+
+    public static final long DEFAULT_STATE_LIMIT = 200_000;
+
+    private LevelValidator() {
+    }
+
+    public static boolean isSolvable(LevelTemplate level) {
+        return isSolvable(level, DEFAULT_STATE_LIMIT);
+    }
+
+    public static boolean isSolvable(LevelTemplate level, long stateLimit) {
+        return validate(level, stateLimit).isSolved();
+    }
+
+    public static Solution validate(LevelTemplate level, long stateLimit) {
+        PuzzleSolver solver = new PuzzleSolver(level);
+        solver.setStateLimit(stateLimit);
+        return solver.solve();
+    }
+}
@@ -0,0 +1,36 @@
+package symbiosis.common.level;
+
+import java.nio.file.Path;
+
+public class LevelValidatorMain {
+    public static void main(String[] args) {
+        LevelCatalog catalog = args.length > 0
+                ? LevelCatalog.fromPath(Path.of(args[0]))
+                : LevelCatalog.fromClasspath();
+        long stateLimit = args.length > 1 ? Long.parseLong(args[1]) : PuzzleSolver.DEFAULT_STATE_LIMIT;
+
+        int failed = 0;
+        for (int i = 0; i < catalog.size(); i++) {
+            LevelTemplate level = catalog.getTemplate(i);
+            long start = System.nanoTime();
+            Solution solution = LevelValidator.validate(level, stateLimit);
+            long ms = (System.nanoTime() - start) / 1_000_000;
+
+            String result = solution.isSolved()
+                    ? "solved in " + solution.getPushes() + " pushes"
+                    : solution.getStatus().name();
+            System.out.println(i + " " + level.getName() + ": " + result
+                    + " (" + solution.getExploredStates() + " states, " + ms + " ms)");
+            if (!solution.isSolved()) {
+                failed++;
+            }
+        }
+
+        System.out.println(failed == 0
+                ? "All " + catalog.size() + " levels are solvable"
+                : failed + " of " + catalog.size() + " levels failed validation");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.MovementRules;
+import symbiosis.common.model.ObjectType;
+import symbiosis.common.model.Position;
+import symbiosis.common.model.TileType;
+import symbiosis.common.net.InputMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class PuzzleSolver {
+
+    public static final long DEFAULT_STATE_LIMIT = 4_000_000;
+
+    private static final int SPLIT_THRESHOLD = 128;
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    private static final InputMessage.InputType[] MOVES = {
+            InputMessage.InputType.MOVE_UP,
+            InputMessage.InputType.MOVE_DOWN,
+            InputMessage.InputType.MOVE_LEFT,
+            InputMessage.InputType.MOVE_RIGHT
+    };
+
+    private final LevelTemplate level;
+    private final int width;
+    private final int cells;
+    private final boolean[] open;
+    private final boolean[] exit;
+    private final int[] neighbours;
+    private final int boxCount;
+
+    private final int bits;
+    private final int fieldsPerWord;
+    private final int words;
+    private final int stride;
+
+    private volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    private volatile long stateLimit = DEFAULT_STATE_LIMIT;
+
+    public PuzzleSolver(LevelTemplate level) {
+        this.level = level;
+        CaveMap map = level.getMap();
+        this.width = map.getWidth();
+        this.cells = width * map.getHeight();
+        this.open = new boolean[cells];
+        this.exit = new boolean[cells];
+        this.neighbours = new int[cells * 4];
+
+        for (int cell = 0; cell < cells; cell++) {
+            int x = cell % width;
+            int y = cell / width;
+            open[cell] = MovementRules.isWalkable(map, x, y);
+            exit[cell] = map.getTile(x, y) == TileType.EXIT;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                neighbours[cell * 4 + d] = map.isInside(nx, ny) ? ny * width + nx : -1;
+            }
+        }
+
+        int boxes = 0;
+        for (int i = 0; i < level.getObjectCount(); i++) {
+            ObjectType type = level.getObjectType(i);
+            if (type == ObjectType.BOX) {
+                boxes++;
+            } else if (type != ObjectType.MUSHROOM && map.isInside(level.getObjectX(i), level.getObjectY(i))) {
+                open[level.getObjectY(i) * width + level.getObjectX(i)] = false;
+            }
+        }
+        this.boxCount = boxes;
+
+        this.bits = 64 - Long.numberOfLeadingZeros(cells);
+        this.fieldsPerWord = 64 / bits;
+        this.words = (2 + boxCount + fieldsPerWord - 1) / fieldsPerWord;
+        this.stride = words + 1;
+    }
+
+    public LevelTemplate getLevel() {
+        return level;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public void setStateLimit(long stateLimit) {
+        this.stateLimit = Math.max(1, stateLimit);
+    }
+
+    public Solution solve() {
+        List<Position> boxes = new ArrayList<>();
+        for (int i = 0; i < level.getObjectCount(); i++) {
+            if (level.getObjectType(i) == ObjectType.BOX) {
+                boxes.add(Position.of(level.getObjectX(i), level.getObjectY(i)));
+            }
+        }
+        return solve(level.getFishSpawn(), level.getCrabSpawn(), boxes);
+    }
+
+    public Solution solve(Position fish, Position crab, List<Position> boxes) {
+        if (boxes.size() != boxCount) {
+            throw new IllegalArgumentException("Expected " + boxCount + " boxes, got " + boxes.size());
+        }
+        int fishCell = cellOf(fish);
+        int crabCell = cellOf(crab);
+        int[] boxCells = new int[boxCount];
+        for (int i = 0; i < boxCount; i++) {
+            boxCells[i] = cellOf(boxes.get(i));
+        }
+        Arrays.sort(boxCells);
+
+        Workspace ws = new Workspace();
+        ws.mark(boxCells);
+        int crabRep = ws.flood(crabCell, ws.region, ws.seen, ++ws.seenStamp);
+        boolean crabExit = ws.hasExit;
+        int fishRep = ws.flood(fishCell, ws.queue, ws.seen, ++ws.seenStamp);
+        if (crabExit && ws.hasExit) {
+            return finish(ws, boxCells, fishCell, crabCell, 0, null, 1);
+        }
+
+        Search search = new Search();
+        RecordBuffer frontier = new RecordBuffer(stride);
+        long[] root = new long[stride];
+        encode(root, crabRep, fishRep, boxCells);
+        root[words] = -1;
+        search.visited.add(root, 0);
+        frontier.append(root, 0);
+
+        List<RecordBuffer> levels = new ArrayList<>();
+        while (true) {
+            levels.add(frontier);
+            RecordBuffer next = pool.invoke(new Expand(search, frontier, 0, frontier.count()));
+            long explored = search.added.get() + 1;
+
+            long[] goal = search.goal.get();
+            if (goal != null) {
+                long[] first = goal;
+                int parent = parentOf(goal);
+                for (int depth = levels.size() - 1; depth >= 1; depth--) {
+                    first = levels.get(depth).copy(parent);
+                    parent = parentOf(first);
+                }
+                return finish(ws, boxCells, fishCell, crabCell, levels.size(), first, explored);
+            }
+            if (search.limitReached()) {
+                return new Solution(Solution.Status.LIMIT_REACHED, -1, explored, null, null);
+            }
+            if (next.count() == 0) {
+                return new Solution(Solution.Status.UNSOLVABLE, -1, explored, null, null);
+            }
+            frontier = next;
+        }
+    }
+
+    private int cellOf(Position p) {
+        if (p.getX() < 0 || p.getX() >= width || p.getY() < 0 || p.getY() * width + p.getX() >= cells) {
+            throw new IllegalArgumentException("Position outside the level: " + p.getX() + "," + p.getY());
+        }
+        return p.getY() * width + p.getX();
+    }
+
+    private Solution finish(Workspace ws, int[] boxCells, int fishCell, int crabCell,
+                            int pushes, long[] first, long explored) {
+        ws.mark(boxCells);
+        if (first == null) {
+            ws.target(exit);
+            return new Solution(Solution.Status.SOLVED, 0, explored,
+                    ws.stepToward(fishCell), ws.stepToward(crabCell));
+        }
+
+        int push = (int) first[words];
+        int box = push >>> 2;
+        int dir = push & 3;
+        int from = neighbours[box * 4 + (dir ^ 1)];
+        int to = neighbours[box * 4 + dir];
+
+        ws.targetStamp++;
+        ws.targets[from] = ws.targetStamp;
+        InputMessage.InputType crabHint = crabCell == from ? MOVES[dir] : ws.stepToward(crabCell);
+
+        int fishRep = field(first, 1) - 1;
+        ws.boxMark[box] = 0;
+        ws.boxMark[to] = ws.boxStamp;
+        ws.flood(fishRep, ws.queue, ws.seen, ++ws.seenStamp);
+        ws.targetStamp++;
+        for (int i = 0; i < ws.floodSize; i++) {
+            ws.targets[ws.queue[i]] = ws.targetStamp;
+        }
+        ws.boxMark[to] = 0;
+        ws.boxMark[box] = ws.boxStamp;
+        InputMessage.InputType fishHint = ws.stepToward(fishCell);
+
+        return new Solution(Solution.Status.SOLVED, pushes, explored, fishHint, crabHint);
+    }
+
+    private void encode(long[] key, int crab, int fish, int[] boxes) {
+        Arrays.fill(key, 0, words, 0L);
+        put(key, 0, crab + 1);
+        put(key, 1, fish + 1);
+        for (int i = 0; i < boxes.length; i++) {
+            put(key, 2 + i, boxes[i] + 1);
+        }
+    }
+
+    private void put(long[] key, int field, int value) {
+        key[field / fieldsPerWord] |= (long) value << ((field % fieldsPerWord) * bits);
+    }
+
+    private int field(long[] key, int field) {
+        return field(key, 0, field);
+    }
+
+    private int field(long[] key, int offset, int field) {
+        long word = key[offset + field / fieldsPerWord];
+        return (int) ((word >>> ((field % fieldsPerWord) * bits)) & ((1L << bits) - 1));
+    }
+
+    private int parentOf(long[] record) {
+        return (int) (record[words] >>> 32);
+    }
+
+    private final class Search {
+        final StateSet visited = new StateSet(words);
+        final AtomicReference<long[]> goal = new AtomicReference<>();
+        final AtomicLong added = new AtomicLong();
+
+        boolean limitReached() {
+            return added.get() >= stateLimit;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private final class Expand extends RecursiveTask<RecordBuffer> {
+
+        private final Search search;
+        private final RecordBuffer frontier;
+        private final int from;
+        private final int to;
+
+        Expand(Search search, RecordBuffer frontier, int from, int to) {
+            this.search = search;
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RecordBuffer compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return expandRange();
+            }
+            int mid = (from + to) >>> 1;
+            Expand left = new Expand(search, frontier, from, mid);
+            left.fork();
+            RecordBuffer right = new Expand(search, frontier, mid, to).compute();
+            RecordBuffer result = left.join();
+            result.appendAll(right);
+            return result;
+        }
+
+        private RecordBuffer expandRange() {
+            RecordBuffer out = new RecordBuffer(stride);
+            Workspace ws = new Workspace();
+            long added = 0;
+            for (int i = from; i < to; i++) {
+                if (search.goal.get() != null || search.limitReached()) {
+                    break;
+                }
+                added += expand(ws, i, out);
+            }
+            search.added.addAndGet(added);
+            return out;
+        }
+
+        private int expand(Workspace ws, int index, RecordBuffer out) {
+            long[] data = frontier.data;
+            int offset = index * stride;
+            int crab = field(data, offset, 0) - 1;
+            int fish = field(data, offset, 1) - 1;
+            for (int i = 0; i < boxCount; i++) {
+                ws.boxes[i] = field(data, offset, 2 + i) - 1;
+            }
+            ws.mark(ws.boxes);
+
+            ws.flood(crab, ws.region, ws.seen, ++ws.seenStamp);
+            int regionSize = ws.floodSize;
+            ws.fishStamp++;
+            ws.flood(fish, ws.queue, ws.fishMark, ws.fishStamp);
+            boolean fishExit = ws.hasExit;
+
+            int added = 0;
+            for (int r = 0; r < regionSize; r++) {
+                int cell = ws.region[r];
+                for (int d = 0; d < 4; d++) {
+                    int box = neighbours[cell * 4 + d];
+                    if (box < 0 || !ws.isBox(box)) {
+                        continue;
+                    }
+                    int target = neighbours[box * 4 + d];
+                    if (target < 0 || !ws.isFree(target)) {
+                        continue;
+                    }
+
+                    ws.boxMark[box] = 0;
+                    ws.boxMark[target] = ws.boxStamp;
+                    ws.moveBox(box, target);
+
+                    int crabStamp = ++ws.seenStamp;
+                    int crabRep = ws.flood(box, ws.queue, ws.seen, crabStamp);
+                    boolean crabExit = ws.hasExit;
+                    long meta = ((long) index << 32) | ((long) box << 2) | d;
+
+                    boolean splits = ws.fishMark[target] == ws.fishStamp;
+                    if (!splits && !ws.touches(box, ws.fishMark, ws.fishStamp)) {
+                        added += emit(ws, crabRep, fish, crabExit && fishExit, meta, out);
+                    } else {
+                        int fishStamp = ++ws.seenStamp;
+                        boolean sharesCrabRegion = false;
+                        for (int s = -1; s < 4; s++) {
+                            int seed = s < 0 ? fish : neighbours[target * 4 + s];
+                            if (s >= 0 && !splits) {
+                                break;
+                            }
+                            if (seed < 0 || seed == target || ws.fishMark[seed] != ws.fishStamp || !ws.isFree(seed)) {
+                                continue;
+                            }
+                            if (ws.seen[seed] == crabStamp) {
+                                if (!sharesCrabRegion) {
+                                    sharesCrabRegion = true;
+                                    added += emit(ws, crabRep, crabRep, crabExit, meta, out);
+                                }
+                                continue;
+                            }
+                            if (ws.seen[seed] == fishStamp) {
+                                continue;
+                            }
+                            int fishRep = ws.flood(seed, ws.queue, ws.seen, fishStamp);
+                            added += emit(ws, crabRep, fishRep, crabExit && ws.hasExit, meta, out);
+                        }
+                    }
+
+                    ws.boxMark[target] = 0;
+                    ws.boxMark[box] = ws.boxStamp;
+                }
+            }
+            return added;
+        }
+
+        private int emit(Workspace ws, int crabRep, int fishRep, boolean goal, long meta, RecordBuffer out) {
+            encode(ws.key, crabRep, fishRep, ws.childBoxes);
+            ws.key[words] = meta;
+            if (!search.visited.add(ws.key, 0)) {
+                return 0;
+            }
+            out.append(ws.key, 0);
+            if (goal) {
+                search.goal.compareAndSet(null, ws.key.clone());
+            }
+            return 1;
+        }
+    }
+
+    private final class Workspace {
+        final int[] boxes = new int[boxCount];
+        final int[] childBoxes = new int[boxCount];
+        final long[] key = new long[stride];
+
+        final int[] boxMark = new int[cells];
+        final int[] seen = new int[cells];
+        final int[] fishMark = new int[cells];
+        final int[] targets = new int[cells];
+        final int[] region = new int[cells];
+        final int[] queue = new int[cells];
+        final int[] parents = new int[cells];
+        int boxStamp;
+        int seenStamp;
+        int fishStamp;
+        int targetStamp;
+
+        int floodSize;
+        boolean hasExit;
+
+        void mark(int[] cellsWithBoxes) {
+            boxStamp++;
+            for (int cell : cellsWithBoxes) {
+                boxMark[cell] = boxStamp;
+            }
+        }
+
+        boolean isBox(int cell) {
+            return boxMark[cell] == boxStamp;
+        }
+
+        boolean touches(int cell, int[] mark, int stamp) {
+            for (int d = 0; d < 4; d++) {
+                int next = neighbours[cell * 4 + d];
+                if (next >= 0 && mark[next] == stamp) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isFree(int cell) {
+            return open[cell] && boxMark[cell] != boxStamp;
+        }
+
+        void moveBox(int from, int to) {
+            System.arraycopy(boxes, 0, childBoxes, 0, boxCount);
+            int i = Arrays.binarySearch(childBoxes, from);
+            while (i > 0 && childBoxes[i - 1] > to) {
+                childBoxes[i] = childBoxes[i - 1];
+                i--;
+            }
+            while (i < boxCount - 1 && childBoxes[i + 1] < to) {
+                childBoxes[i] = childBoxes[i + 1];
+                i++;
+            }
+            childBoxes[i] = to;
+        }
+
+        int flood(int start, int[] buffer, int[] mark, int stamp) {
+            int head = 0;
+            int tail = 0;
+            int min = start;
+            boolean reachesExit = false;
+            buffer[tail++] = start;
+            mark[start] = stamp;
+            while (head < tail) {
+                int cell = buffer[head++];
+                min = Math.min(min, cell);
+                reachesExit |= exit[cell];
+                for (int d = 0; d < 4; d++) {
+                    int next = neighbours[cell * 4 + d];
+                    if (next >= 0 && mark[next] != stamp && isFree(next)) {
+                        mark[next] = stamp;
+                        buffer[tail++] = next;
+                    }
+                }
+            }
+            floodSize = tail;
+            hasExit = reachesExit;
+            return min;
+        }
+
+        void target(boolean[] mask) {
+            targetStamp++;
+            for (int cell = 0; cell < cells; cell++) {
+                if (mask[cell]) {
+                    targets[cell] = targetStamp;
+                }
+            }
+        }
+
+        InputMessage.InputType stepToward(int start) {
+            if (targets[start] == targetStamp) {
+                return InputMessage.InputType.STOP;
+            }
+            int stamp = ++seenStamp;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            seen[start] = stamp;
+            parents[start] = -1;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int d = 0; d < 4; d++) {
+                    int next = neighbours[cell * 4 + d];
+                    if (next < 0 || seen[next] == stamp || !isFree(next)) {
+                        continue;
+                    }
+                    seen[next] = stamp;
+                    parents[next] = cell;
+                    if (targets[next] == targetStamp) {
+                        int step = next;
+                        while (parents[step] != start) {
+                            step = parents[step];
+                        }
+                        for (int dir = 0; dir < 4; dir++) {
+                            if (neighbours[start * 4 + dir] == step) {
+                                return MOVES[dir];
+                            }
+                        }
+                    }
+                    queue[tail++] = next;
+                }
+            }
+            return InputMessage.InputType.STOP;
+        }
+    }
+
+    private static final class RecordBuffer {
+        private final int stride;
+        private long[] data;
+        private int size;
+
+        RecordBuffer(int stride) {
+            this.stride = stride;
+            this.data = new long[stride * 16];
+        }
+
+        int count() {
+            return size / stride;
+        }
+
+        void append(long[] src, int offset) {
+            ensure(size + stride);
+            System.arraycopy(src, offset, data, size, stride);
+            size += stride;
+        }
+
+        void appendAll(RecordBuffer other) {
+            ensure(size + other.size);
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        long[] copy(int index) {
+            return Arrays.copyOfRange(data, index * stride, (index + 1) * stride);
+        }
+
+        private void ensure(int capacity) {
+            if (capacity > data.length) {
+                data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package symbiosis.common.level;
+
+import symbiosis.common.model.PlayerRole;
+import symbiosis.common.net.InputMessage;
+
+public final class Solution {
+
+    public enum Status {
+        SOLVED,
+        UNSOLVABLE,
+        LIMIT_REACHED
+    }
+
+    private final Status status;
+    private final int pushes;
+    private final long exploredStates;
+    private final InputMessage.InputType fishHint;
+    private final InputMessage.InputType crabHint;
+
+    Solution(Status status, int pushes, long exploredStates,
+             InputMessage.InputType fishHint, InputMessage.InputType crabHint) {
+        this.status = status;
+        this.pushes = pushes;
+        this.exploredStates = exploredStates;
+        this.fishHint = fishHint;
+        this.crabHint = crabHint;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+    public int getPushes() {
+        return pushes;
+    }
+
+    public long getExploredStates() {
+        return exploredStates;
+    }
+
+    public InputMessage.InputType getHint(PlayerRole role) {
+        return role == PlayerRole.FISH ? fishHint : crabHint;
+    }
+}
@@ -0,0 +1,96 @@
+package symbiosis.common.level;
+
+final class StateSet {
+
+    private static final int SHARD_BITS = 6;
+    private static final int INITIAL_SLOTS = 1 << 10;
+
+    private final int words;
+    private final Shard[] shards = new Shard[1 << SHARD_BITS];
+
+    StateSet(int words) {
+        this.words = words;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    boolean add(long[] key, int offset) {
+        long hash = hash(key, offset);
+        Shard shard = shards[(int) (hash >>> (64 - SHARD_BITS))];
+        synchronized (shard) {
+            return shard.add(key, offset, (int) hash);
+        }
+    }
+
+    long size() {
+        long total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.size;
+            }
+        }
+        return total;
+    }
+
+    private long hash(long[] key, int offset) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < words; i++) {
+            h = (h ^ key[offset + i]) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h *= 0x94D049BB133111EBL;
+        return h ^ (h >>> 29);
+    }
+
+    private final class Shard {
+
+        private long[] table = new long[INITIAL_SLOTS * words];
+        private int mask = INITIAL_SLOTS - 1;
+        private int size;
+
+        boolean add(long[] key, int offset, int hash) {
+            int slot = hash & mask;
+            while (true) {
+                int base = slot * words;
+                if (table[base] == 0) {
+                    System.arraycopy(key, offset, table, base, words);
+                    if (++size > (mask + 1) * 5 / 8) {
+                        grow();
+                    }
+                    return true;
+                }
+                if (matches(base, key, offset)) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private boolean matches(int base, long[] key, int offset) {
+            for (int i = 0; i < words; i++) {
+                if (table[base + i] != key[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            long[] old = table;
+            int slots = (mask + 1) * 2;
+            table = new long[slots * words];
+            mask = slots - 1;
+            for (int base = 0; base < old.length; base += words) {
+                if (old[base] == 0) {
+                    continue;
+                }
+                int slot = (int) hash(old, base) & mask;
+                while (table[slot * words] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                System.arraycopy(old, base, table, slot * words, words);
+            }
+        }
+    }
+}
@@ -1,22 +1,57 @@
 package symbiosis.common.model;
 
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
 public class CaveMap {
 
+    private static final TileType[] TYPES = TileType.values();
+    private static final byte WALL_CODE = (byte) TileType.WALL.ordinal();
+
     private final int width;
     private final int height;
 
-    private final TileType[][] tiles;
+    private final ByteBuffer tiles;
 
     public CaveMap(int width, int height) {
+        this(width, height, ByteBuffer.allocate(checkedArea(width, height)));
+    }
+
+    private CaveMap(int width, int height, ByteBuffer tiles) {
         this.width = width;
         this.height = height;
-        this.tiles = new TileType[height][width];
+        this.tiles = tiles;
+    }
+
+    public static CaveMap wrap(int width, int height, ByteBuffer tiles) {
+        int area = checkedArea(width, height);
+        if (tiles.remaining() < area) {
+            throw new IllegalArgumentException("Tile plane too short: " + tiles.remaining() + " < " + area);
+        }
+        return new CaveMap(width, height, tiles.slice(tiles.position(), area));
+    }
+
+    private static int checkedArea(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid map size: " + width + "x" + height);
+        }
+        return width * height;
+    }
+
+    public static CaveMap fromRows(String[] rows) {
+        int height = rows.length;
+        int width = height > 0 ? rows[0].length() : 0;
+        CaveMap map = new CaveMap(width, height);
 
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                tiles[y][x] = TileType.EMPTY;
+            String row = rows[y];
+            int offset = y * width;
+            int n = Math.min(width, row.length());
+            for (int x = 0; x < n; x++) {
+                map.tiles.put(offset + x, (byte) TileType.fromChar(row.charAt(x)).ordinal());
             }
         }
+        return map;
     }
 
     public int getWidth() {
@@ -27,14 +62,41 @@ public class CaveMap {
         return height;
     }
 
+    public boolean isInside(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
     public TileType getTile(int x, int y) {
-        if (x < 0 || x >= width || y < 0 || y >= height) {
-            return TileType.WALL;
+        return TYPES[getTileCode(x, y)];
+    }
+
+    public byte getTileCode(int x, int y) {
+        if (!isInside(x, y)) {
+            return WALL_CODE;
         }
-        return tiles[y][x];
+        return tiles.get(y * width + x);
     }
 
     public void setTile(int x, int y, TileType type) {
-        tiles[y][x] = type;
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        tiles.put(y * width + x, (byte) type.ordinal());
+    }
+
+    public void copyRow(int y, byte[] dst, int dstOffset) {
+        Objects.checkIndex(y, height);
+        tiles.get(y * width, dst, dstOffset, width);
+    }
+
+    public void copyRegion(int x, int y, int regionWidth, int regionHeight, byte[] dst) {
+        Objects.checkFromIndexSize(x, regionWidth, width);
+        Objects.checkFromIndexSize(y, regionHeight, height);
+        for (int row = 0; row < regionHeight; row++) {
+            tiles.get((y + row) * width + x, dst, row * regionWidth, regionWidth);
+        }
+    }
+
+    public static TileType tileForCode(byte code) {
+        return TYPES[code];
     }
 }
@@ -1,21 +1,39 @@
 package symbiosis.common.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Objects;
 
 public class GameState {
 
+    private static final ObjectType[] TYPES = ObjectType.values();
+
     private CaveMap map;
 
     private Player fish;
     private Player crab;
 
-    private List<GameObject> objects = new ArrayList<>();
+    private int objectCount;
+    private int[] objectIds;
+    private byte[] objectTypes;
+    private int[] objectX;
+    private int[] objectY;
+    private boolean[] objectActive;
+    private int objectVersion;
 
     private boolean levelCompleted;
 
     public GameState(CaveMap map) {
+        this(map, new int[0], new byte[0], new int[0], new int[0]);
+    }
+
+    public GameState(CaveMap map, int[] ids, byte[] types, int[] xs, int[] ys) {
         this.map = map;
+        this.objectCount = ids.length;
+        this.objectIds = ids.clone();
+        this.objectTypes = types.clone();
+        this.objectX = xs.clone();
+        this.objectY = ys.clone();
+        this.objectActive = new boolean[ids.length];
     }
 
     public CaveMap getMap() {
@@ -38,8 +56,63 @@ public class GameState {
         this.crab = crab;
     }
 
-    public List<GameObject> getObjects() {
-        return objects;
+    public int getObjectCount() {
+        return objectCount;
+    }
+
+    public int getObjectId(int index) {
+        return objectIds[index];
+    }
+
+    public ObjectType getObjectType(int index) {
+        return TYPES[objectTypes[index]];
+    }
+
+    public int getObjectX(int index) {
+        return objectX[index];
+    }
+
+    public int getObjectY(int index) {
+        return objectY[index];
+    }
+
+    public boolean isObjectActive(int index) {
+        return objectActive[index];
+    }
+
+    public int getObjectVersion() {
+        return objectVersion;
+    }
+
+    public void moveObject(int index, int x, int y) {
+        Objects.checkIndex(index, objectCount);
+        objectX[index] = x;
+        objectY[index] = y;
+        objectVersion++;
+    }
+
+    public void setObjectActive(int index, boolean active) {
+        Objects.checkIndex(index, objectCount);
+        objectActive[index] = active;
+        objectVersion++;
+    }
+
+    public int addObject(int id, ObjectType type, int x, int y) {
+        if (objectCount == objectIds.length) {
+            int capacity = Math.max(16, objectCount * 2);
+            objectIds = Arrays.copyOf(objectIds, capacity);
+            objectTypes = Arrays.copyOf(objectTypes, capacity);
+            objectX = Arrays.copyOf(objectX, capacity);
+            objectY = Arrays.copyOf(objectY, capacity);
+            objectActive = Arrays.copyOf(objectActive, capacity);
+        }
+        objectIds[objectCount] = id;
+        objectTypes[objectCount] = (byte) type.ordinal();
+        objectX[objectCount] = x;
+        objectY[objectCount] = y;
+        objectActive[objectCount] = false;
+        objectVersion++;
+        return objectCount++;
     }
 
     public boolean isLevelCompleted() {
@@ -0,0 +1,34 @@
+package symbiosis.common.model;
+
+public final class MovementRules {
+
+    public static final int BLOCKED = 0;
+    public static final int MOVE = 1;
+    public static final int PUSH = 2;
+
+    private MovementRules() {
+    }
+
+    public static boolean isWalkable(CaveMap map, int x, int y) {
+        return map.getTile(x, y) != TileType.WALL;
+    }
+
+    public static int resolve(CaveMap map, OccupancyGrid grid, PlayerRole role, int x, int y, int dx, int dy) {
+        int targetX = x + dx;
+        int targetY = y + dy;
+
+        if (role == PlayerRole.CRAB && grid.isBox(targetX, targetY)) {
+            int boxTargetX = targetX + dx;
+            int boxTargetY = targetY + dy;
+            if (isWalkable(map, boxTargetX, boxTargetY) && !grid.isBlocked(boxTargetX, boxTargetY)) {
+                return PUSH;
+            }
+            return BLOCKED;
+        }
+
+        if (isWalkable(map, targetX, targetY) && !grid.isBlocked(targetX, targetY)) {
+            return MOVE;
+        }
+        return BLOCKED;
+    }
+}
@@ -0,0 +1,84 @@
+package symbiosis.common.model;
+
+public class OccupancyGrid {
+
+    private final int width;
+    private final int height;
+
+    private final int[] blockers;
+    private final int[] mushrooms;
+    private final boolean[] boxes;
+
+    public OccupancyGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.blockers = new int[width * height];
+        this.mushrooms = new int[width * height];
+        this.boxes = new boolean[width * height];
+    }
+
+    private OccupancyGrid(OccupancyGrid other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.blockers = other.blockers.clone();
+        this.mushrooms = other.mushrooms.clone();
+        this.boxes = other.boxes.clone();
+    }
+
+    public OccupancyGrid copy() {
+        return new OccupancyGrid(this);
+    }
+
+    public static OccupancyGrid build(GameState state) {
+        CaveMap map = state.getMap();
+        OccupancyGrid grid = new OccupancyGrid(map.getWidth(), map.getHeight());
+        for (int i = 0; i < state.getObjectCount(); i++) {
+            grid.add(i, state.getObjectType(i), state.getObjectX(i), state.getObjectY(i));
+        }
+        return grid;
+    }
+
+    public void add(int index, ObjectType type, int x, int y) {
+        if (!inBounds(x, y)) {
+            return;
+        }
+        int cell = y * width + x;
+        if (type == ObjectType.MUSHROOM) {
+            if (mushrooms[cell] == 0) {
+                mushrooms[cell] = index + 1;
+            }
+        } else if (blockers[cell] == 0) {
+            blockers[cell] = index + 1;
+            boxes[cell] = type == ObjectType.BOX;
+        }
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean isBlocked(int x, int y) {
+        return inBounds(x, y) && blockers[y * width + x] != 0;
+    }
+
+    public boolean isBox(int x, int y) {
+        return inBounds(x, y) && boxes[y * width + x];
+    }
+
+    public int blockerAt(int x, int y) {
+        return inBounds(x, y) ? blockers[y * width + x] - 1 : -1;
+    }
+
+    public int mushroomAt(int x, int y) {
+        return inBounds(x, y) ? mushrooms[y * width + x] - 1 : -1;
+    }
+
+    public void moveBlocker(int fromX, int fromY, int toX, int toY) {
+        int from = fromY * width + fromX;
+        int to = toY * width + toX;
+        blockers[to] = blockers[from];
+        boxes[to] = boxes[from];
+        blockers[from] = 0;
+        boxes[from] = false;
+    }
+}
@@ -1,32 +1,53 @@
 package symbiosis.common.model;
 
-public class Position {
+public final class Position {
 
-    private int x;
-    private int y;
+    private static final int CACHE_SIZE = 64;
+    private static final Position[] CACHE = new Position[CACHE_SIZE * CACHE_SIZE];
 
-    public Position() {
+    static {
+        for (int y = 0; y < CACHE_SIZE; y++) {
+            for (int x = 0; x < CACHE_SIZE; x++) {
+                CACHE[y * CACHE_SIZE + x] = new Position(x, y);
+            }
+        }
     }
 
-    public Position(int x, int y) {
+    private final int x;
+    private final int y;
+
+    private Position(int x, int y) {
         this.x = x;
         this.y = y;
     }
 
-    public int getX() {
-        return x;
+    public static Position of(int x, int y) {
+        if (x >= 0 && x < CACHE_SIZE && y >= 0 && y < CACHE_SIZE) {
+            return CACHE[y * CACHE_SIZE + x];
+        }
+        return new Position(x, y);
     }
 
-    public void setX(int x) {
-        this.x = x;
+    public int getX() {
+        return x;
     }
 
     public int getY() {
         return y;
     }
 
-    public void setY(int y) {
-        this.y = y;
+    public Position translate(int dx, int dy) {
+        return of(x + dx, y + dy);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Position p && p.x == x && p.y == y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
     }
 
     @Override
@@ -39,6 +60,6 @@ public class Position {
         if (parts.length != 2) {
             throw new IllegalArgumentException("Invalid position: " + s);
         }
-        return new Position(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        return of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
     }
 }
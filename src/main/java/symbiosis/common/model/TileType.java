@@ -5,5 +5,25 @@ public enum TileType {
     WALL,
     LIGHT_TILE,
     DARK_TILE,
-    EXIT
+    EXIT;
+
+    public static TileType fromChar(char c) {
+        return switch (c) {
+            case '#' -> WALL;
+            case 'E' -> EXIT;
+            case 'D' -> DARK_TILE;
+            case 'L' -> LIGHT_TILE;
+            default -> EMPTY;
+        };
+    }
+
+    public char toChar() {
+        return switch (this) {
+            case WALL -> '#';
+            case EXIT -> 'E';
+            case DARK_TILE -> 'D';
+            case LIGHT_TILE -> 'L';
+            case EMPTY -> '.';
+        };
+    }
 }
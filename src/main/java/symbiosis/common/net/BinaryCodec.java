@@ -0,0 +1,338 @@
+package symbiosis.common.net;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class BinaryCodec {
+
+    public static final byte FRAME_MARKER = 0;
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    private static final MessageType[] TYPES = MessageType.values();
+    private static final InputMessage.InputType[] INPUT_TYPES = InputMessage.InputType.values();
+
+    private static final int STATE_PLAIN = 0;
+    private static final int STATE_PACKED = 1;
+    private static final int STATE_END = 0x00;
+    private static final int SMALL_NUMBER = 0x80;
+    private static final int LARGE_NUMBER = 0xFF;
+    private static final int MAX_NUMBER_DIGITS = 9;
+
+    public byte[] encodeFrame(Message msg) {
+        FrameWriter w = new FrameWriter();
+        w.writeByte(FRAME_MARKER);
+        int lengthPos = w.pos;
+        w.pos += 3;
+        int payloadStart = w.pos;
+
+        w.writeByte(msg.getType().ordinal());
+        switch (msg.getType()) {
+            case JOIN -> {
+                JoinMessage m = (JoinMessage) msg;
+                w.writeString(m.getPlayerName());
+                w.writeString(m.getPreferredRole());
+                w.writeSignedVarInt(m.getPreferredLevel());
+                w.writeString(m.getCapabilities());
+            }
+            case CHAT -> {
+                ChatMessage m = (ChatMessage) msg;
+                w.writeString(m.getFrom());
+                w.writeString(m.getText());
+            }
+            case ROLE_ASSIGNED -> {
+                RoleAssignedMessage m = (RoleAssignedMessage) msg;
+                w.writeString(m.getPlayerId());
+                w.writeString(m.getRole());
+            }
+            case ERROR -> {
+                ErrorMessage m = (ErrorMessage) msg;
+                w.writeString(m.getErrorCode());
+                w.writeString(m.getErrorText());
+            }
+            case INPUT -> {
+                InputMessage m = (InputMessage) msg;
+                w.writeString(m.getClientId());
+                w.writeByte(m.getInputType().ordinal());
+                w.writeVarInt(m.getSeq());
+            }
+            case STATE_UPDATE -> {
+                StateUpdateMessage m = (StateUpdateMessage) msg;
+                w.writeStatePayload(m.getPayload());
+            }
+            case LEVEL_DATA -> {
+                LevelDataMessage m = (LevelDataMessage) msg;
+                w.writeVarInt(m.getWidth());
+                w.writeVarInt(m.getHeight());
+                for (String row : m.getRows()) {
+                    w.writeString(row);
+                }
+                w.writeVarInt(m.getEntityIds().length);
+                for (int id : m.getEntityIds()) {
+                    w.writeVarInt(id);
+                }
+            }
+            case LEVEL_VOTE -> {
+                LevelVoteMessage m = (LevelVoteMessage) msg;
+                w.writeString(m.getClientId());
+                w.writeSignedVarInt(m.getLevelIndex());
+            }
+            case RESTART_REQUEST -> w.writeString(((RestartRequestMessage) msg).getClientId());
+            case RESTART_OFFER -> w.writeString(((RestartOfferMessage) msg).getFromName());
+            case RESTART_RESPONSE -> {
+                RestartResponseMessage m = (RestartResponseMessage) msg;
+                w.writeString(m.getClientId());
+                w.writeByte(m.isAccepted() ? 1 : 0);
+            }
+            case HINT_REQUEST -> w.writeString(((HintRequestMessage) msg).getClientId());
+            case HINT -> {
+                HintMessage m = (HintMessage) msg;
+                w.writeByte(m.getMove().ordinal());
+                w.writeSignedVarInt(m.getPushes());
+            }
+            default -> throw new IllegalArgumentException("Unknown message type: " + msg.getType());
+        }
+
+        int length = w.pos - payloadStart;
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Frame too long: " + length);
+        }
+        w.buf[lengthPos] = (byte) (length & 0x7F | 0x80);
+        w.buf[lengthPos + 1] = (byte) ((length >>> 7) & 0x7F | 0x80);
+        w.buf[lengthPos + 2] = (byte) (length >>> 14);
+        return Arrays.copyOf(w.buf, w.pos);
+    }
+
+    public Message decode(ByteBuffer in) throws IllegalArgumentException {
+        try {
+            int typeIndex = in.get() & 0xFF;
+            if (typeIndex >= TYPES.length) {
+                throw new IllegalArgumentException("Unknown message type: " + typeIndex);
+            }
+
+            return switch (TYPES[typeIndex]) {
+                case JOIN -> {
+                    String name = readString(in);
+                    String role = readString(in);
+                    int level = readSignedVarInt(in);
+                    String caps = in.hasRemaining() ? readString(in) : "";
+                    yield new JoinMessage(name.isEmpty() ? "Player" : name,
+                            role.isEmpty() ? null : role, level, caps);
+                }
+                case CHAT -> new ChatMessage(readString(in), readString(in));
+                case ROLE_ASSIGNED -> new RoleAssignedMessage(readString(in), readString(in));
+                case ERROR -> new ErrorMessage(readString(in), readString(in));
+                case INPUT -> {
+                    String clientId = readString(in);
+                    int inputIndex = in.get() & 0xFF;
+                    if (inputIndex >= INPUT_TYPES.length) {
+                        throw new IllegalArgumentException("Invalid INPUT");
+                    }
+                    int seq = in.hasRemaining() ? readVarInt(in) : 0;
+                    yield new InputMessage(clientId, INPUT_TYPES[inputIndex], seq);
+                }
+                case STATE_UPDATE -> new StateUpdateMessage(readStatePayload(in));
+                case LEVEL_DATA -> {
+                    int width = readVarInt(in);
+                    int height = readVarInt(in);
+                    if (height > in.remaining()) {
+                        throw new IllegalArgumentException("Invalid LEVEL_DATA rows count");
+                    }
+                    String[] rows = new String[height];
+                    for (int i = 0; i < height; i++) {
+                        rows[i] = readString(in);
+                    }
+                    int idCount = in.hasRemaining() ? readVarInt(in) : 0;
+                    if (idCount < 0 || idCount > in.remaining()) {
+                        throw new IllegalArgumentException("Invalid LEVEL_DATA entity count");
+                    }
+                    int[] ids = new int[idCount];
+                    for (int i = 0; i < idCount; i++) {
+                        ids[i] = readVarInt(in);
+                    }
+                    yield new LevelDataMessage(width, height, rows, ids);
+                }
+                case LEVEL_VOTE -> new LevelVoteMessage(readString(in), readSignedVarInt(in));
+                case RESTART_REQUEST -> new RestartRequestMessage(readString(in));
+                case RESTART_OFFER -> new RestartOfferMessage(readString(in));
+                case RESTART_RESPONSE -> new RestartResponseMessage(readString(in), in.get() == 1);
+                case HINT_REQUEST -> new HintRequestMessage(readString(in));
+                case HINT -> {
+                    int moveIndex = in.get() & 0xFF;
+                    if (moveIndex >= INPUT_TYPES.length) {
+                        throw new IllegalArgumentException("Invalid HINT");
+                    }
+                    yield new HintMessage(INPUT_TYPES[moveIndex], readSignedVarInt(in));
+                }
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated frame");
+        }
+    }
+
+    public static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            if (shift == 28 && (b & 0xF0) != 0) {
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readSignedVarInt(ByteBuffer in) {
+        int raw = readVarInt(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    private static String readStatePayload(ByteBuffer in) {
+        int mode = in.get() & 0xFF;
+        if (mode == STATE_PLAIN) {
+            return readString(in);
+        }
+        if (mode != STATE_PACKED) {
+            throw new IllegalArgumentException("Unknown STATE_UPDATE encoding: " + mode);
+        }
+        StringBuilder sb = new StringBuilder(64);
+        boolean lastWasNumber = false;
+        while (true) {
+            int b = in.get() & 0xFF;
+            if (b == STATE_END) {
+                return sb.toString();
+            }
+            if (b < SMALL_NUMBER) {
+                sb.append((char) b);
+                lastWasNumber = false;
+                continue;
+            }
+            if (lastWasNumber) {
+                sb.append(',');
+            }
+            sb.append(b == LARGE_NUMBER ? readVarInt(in) : b - SMALL_NUMBER);
+            lastWasNumber = true;
+        }
+    }
+
+    private static int numberEnd(String s, int start) {
+        int end = start;
+        while (end < s.length() && s.charAt(end) >= '0' && s.charAt(end) <= '9') {
+            end++;
+        }
+        int digits = end - start;
+        if (digits == 0 || digits > MAX_NUMBER_DIGITS || (digits > 1 && s.charAt(start) == '0')) {
+            return -1;
+        }
+        return end;
+    }
+
+    private static final class FrameWriter {
+
+        private byte[] buf = new byte[128];
+        private int pos;
+
+        void writeByte(int b) {
+            ensureCapacity(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeSignedVarInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String s) {
+            if (s == null || s.isEmpty()) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void writeStatePayload(String payload) {
+            int start = pos;
+            int length = payload.length();
+            ensureCapacity(length + 2);
+            buf[pos++] = STATE_PACKED;
+            boolean lastWasNumber = false;
+            int i = 0;
+            while (i < length) {
+                char c = payload.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    int end = numberEnd(payload, i);
+                    if (end < 0) {
+                        while (i < length && payload.charAt(i) >= '0' && payload.charAt(i) <= '9') {
+                            buf[pos++] = (byte) payload.charAt(i++);
+                        }
+                        lastWasNumber = false;
+                        continue;
+                    }
+                    int value = 0;
+                    for (; i < end; i++) {
+                        value = value * 10 + payload.charAt(i) - '0';
+                    }
+                    if (value < LARGE_NUMBER - SMALL_NUMBER) {
+                        buf[pos++] = (byte) (SMALL_NUMBER + value);
+                    } else {
+                        writeByte(LARGE_NUMBER);
+                        writeVarInt(value);
+                        ensureCapacity(length - i + 1);
+                    }
+                    lastWasNumber = true;
+                } else if (c < 0x20 || c > 0x7E) {
+                    pos = start;
+                    writeByte(STATE_PLAIN);
+                    writeString(payload);
+                    return;
+                } else {
+                    if (c != ',' || !lastWasNumber || numberEnd(payload, i + 1) < 0) {
+                        buf[pos++] = (byte) c;
+                        lastWasNumber = false;
+                    }
+                    i++;
+                }
+            }
+            buf[pos++] = STATE_END;
+        }
+
+        void ensureCapacity(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+}
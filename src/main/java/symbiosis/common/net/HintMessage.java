@@ -0,0 +1,25 @@
+package symbiosis.common.net;
+
+public class HintMessage extends Message {
+
+    private final InputMessage.InputType move;
+    private final int pushes;
+
+    public HintMessage(InputMessage.InputType move, int pushes) {
+        super(MessageType.HINT);
+        this.move = move;
+        this.pushes = pushes;
+    }
+
+    public InputMessage.InputType getMove() {
+        return move;
+    }
+
+    public int getPushes() {
+        return pushes;
+    }
+
+    public boolean isSolvable() {
+        return pushes >= 0;
+    }
+}
@@ -0,0 +1,15 @@
+package symbiosis.common.net;
+
+public class HintRequestMessage extends Message {
+
+    private final String clientId;
+
+    public HintRequestMessage(String clientId) {
+        super(MessageType.HINT_REQUEST);
+        this.clientId = clientId;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+}
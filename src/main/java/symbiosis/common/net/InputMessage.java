@@ -3,21 +3,43 @@ package symbiosis.common.net;
 public class InputMessage extends Message {
 
     public enum InputType {
-        MOVE_UP,
-        MOVE_DOWN,
-        MOVE_LEFT,
-        MOVE_RIGHT,
-        ACTION,
-        STOP
+        MOVE_UP(0, -1),
+        MOVE_DOWN(0, 1),
+        MOVE_LEFT(-1, 0),
+        MOVE_RIGHT(1, 0),
+        ACTION(0, 0),
+        STOP(0, 0);
+
+        private final int dx;
+        private final int dy;
+
+        InputType(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        public int getDx() {
+            return dx;
+        }
+
+        public int getDy() {
+            return dy;
+        }
     }
 
     private final String clientId;
     private final InputType inputType;
+    private final int seq;
 
     public InputMessage(String clientId, InputType inputType) {
+        this(clientId, inputType, 0);
+    }
+
+    public InputMessage(String clientId, InputType inputType, int seq) {
         super(MessageType.INPUT);
         this.clientId = clientId;
         this.inputType = inputType;
+        this.seq = seq;
     }
 
     public String getClientId() {
@@ -27,4 +49,8 @@ public class InputMessage extends Message {
     public InputType getInputType() {
         return inputType;
     }
+
+    public int getSeq() {
+        return seq;
+    }
 }
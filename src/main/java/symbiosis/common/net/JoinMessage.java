@@ -2,19 +2,28 @@ package symbiosis.common.net;
 
 public class JoinMessage extends Message {
 
+    public static final String CAP_BINARY = "BIN";
+    public static final String CAP_DELTA = "DELTA";
+
     private final String playerName;
     private final String preferredRole;
     private final int preferredLevel;
+    private final String capabilities;
 
     public JoinMessage(String playerName) {
         this(playerName, null, -1);
     }
 
     public JoinMessage(String playerName, String preferredRole, int preferredLevel) {
+        this(playerName, preferredRole, preferredLevel, "");
+    }
+
+    public JoinMessage(String playerName, String preferredRole, int preferredLevel, String capabilities) {
         super(MessageType.JOIN);
         this.playerName = playerName;
         this.preferredRole = preferredRole;
         this.preferredLevel = preferredLevel;
+        this.capabilities = capabilities == null ? "" : capabilities;
     }
 
     public String getPlayerName() {
@@ -28,4 +37,17 @@ public class JoinMessage extends Message {
     public int getPreferredLevel() {
         return preferredLevel;
     }
+
+    public String getCapabilities() {
+        return capabilities;
+    }
+
+    public boolean hasCapability(String capability) {
+        for (String cap : capabilities.split(",")) {
+            if (cap.trim().equalsIgnoreCase(capability)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -5,12 +5,18 @@ public class LevelDataMessage extends Message {
     private final int width;
     private final int height;
     private final String[] rows;
+    private final int[] entityIds;
 
     public LevelDataMessage(int width, int height, String[] rows) {
+        this(width, height, rows, new int[0]);
+    }
+
+    public LevelDataMessage(int width, int height, String[] rows, int[] entityIds) {
         super(MessageType.LEVEL_DATA);
         this.width = width;
         this.height = height;
         this.rows = rows;
+        this.entityIds = entityIds;
     }
 
     public int getWidth() {
@@ -24,4 +30,8 @@ public class LevelDataMessage extends Message {
     public String[] getRows() {
         return rows;
     }
+
+    public int[] getEntityIds() {
+        return entityIds;
+    }
 }
@@ -0,0 +1,92 @@
+package symbiosis.common.net;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class MessageReader {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final InputStream in;
+    private final ProtocolDecoder textDecoder;
+    private final BinaryCodec binaryCodec;
+
+    private byte[] buffer = new byte[256];
+    private WireFormat lastFormat = WireFormat.TEXT;
+
+    public MessageReader(InputStream in, ProtocolDecoder textDecoder, BinaryCodec binaryCodec) {
+        this.in = new BufferedInputStream(in);
+        this.textDecoder = textDecoder;
+        this.binaryCodec = binaryCodec;
+    }
+
+    public WireFormat getLastFormat() {
+        return lastFormat;
+    }
+
+    public Message read() throws IOException, IllegalArgumentException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+
+        if (first == BinaryCodec.FRAME_MARKER) {
+            lastFormat = WireFormat.BINARY;
+            int length = readVarInt();
+            if (length < 0 || length > BinaryCodec.MAX_FRAME_LENGTH) {
+                throw new IOException("Frame too long: " + length);
+            }
+            ensureCapacity(length);
+            int read = in.readNBytes(buffer, 0, length);
+            if (read < length) {
+                throw new EOFException("Truncated frame");
+            }
+            return binaryCodec.decode(ByteBuffer.wrap(buffer, 0, length));
+        }
+
+        lastFormat = WireFormat.TEXT;
+        int length = 0;
+        int b = first;
+        while (b >= 0 && b != '\n') {
+            if (length >= MAX_LINE_LENGTH) {
+                throw new IOException("Line too long");
+            }
+            ensureCapacity(length + 1);
+            buffer[length++] = (byte) b;
+            b = in.read();
+        }
+        if (length > 0 && buffer[length - 1] == '\r') {
+            length--;
+        }
+        return textDecoder.decode(new String(buffer, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated frame header");
+            }
+            if (shift == 28 && (b & 0xF0) != 0) {
+                break;
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed frame length");
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size));
+        }
+    }
+}
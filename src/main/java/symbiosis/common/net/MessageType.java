@@ -11,5 +11,7 @@ public enum MessageType {
     LEVEL_VOTE,
     RESTART_REQUEST,
     RESTART_OFFER,
-    RESTART_RESPONSE
+    RESTART_RESPONSE,
+    HINT_REQUEST,
+    HINT
 }
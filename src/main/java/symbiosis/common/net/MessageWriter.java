@@ -0,0 +1,42 @@
+package symbiosis.common.net;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class MessageWriter {
+
+    private final OutputStream out;
+    private final ProtocolEncoder textEncoder;
+    private final BinaryCodec binaryCodec;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public MessageWriter(OutputStream out, ProtocolEncoder textEncoder, BinaryCodec binaryCodec) {
+        this.out = new BufferedOutputStream(out);
+        this.textEncoder = textEncoder;
+        this.binaryCodec = binaryCodec;
+    }
+
+    public void write(Message msg, WireFormat format) throws IOException {
+        byte[] bytes = encode(msg, format, textEncoder, binaryCodec);
+        lock.lock();
+        try {
+            out.write(bytes);
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static byte[] encode(Message msg,
+                                WireFormat format,
+                                ProtocolEncoder textEncoder,
+                                BinaryCodec binaryCodec) {
+        if (format == WireFormat.BINARY) {
+            return binaryCodec.encodeFrame(msg);
+        }
+        return (textEncoder.encode(msg) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
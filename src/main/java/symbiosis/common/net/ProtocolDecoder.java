@@ -23,7 +23,8 @@ public class ProtocolDecoder {
                         prefLevel = Integer.parseInt(parts[3]);
                     } catch (NumberFormatException ignored) {}
                 }
-                yield new JoinMessage(name, prefRole, prefLevel);
+                String caps = parts.length > 4 ? unescape(parts[4]) : "";
+                yield new JoinMessage(name, prefRole, prefLevel, caps);
             }
             case "CHAT" -> {
                 if (parts.length < 3) throw new IllegalArgumentException("Invalid CHAT");
@@ -41,7 +42,13 @@ public class ProtocolDecoder {
                 if (parts.length < 3) throw new IllegalArgumentException("Invalid INPUT");
                 String clientId = unescape(parts[1]);
                 InputMessage.InputType inputType = InputMessage.InputType.valueOf(parts[2]);
-                yield new InputMessage(clientId, inputType);
+                int seq = 0;
+                if (parts.length > 3 && !parts[3].isEmpty()) {
+                    try {
+                        seq = Integer.parseInt(parts[3]);
+                    } catch (NumberFormatException ignored) {}
+                }
+                yield new InputMessage(clientId, inputType, seq);
             }
             case "STATE_UPDATE" -> {
                 if (parts.length < 2) throw new IllegalArgumentException("Invalid STATE_UPDATE");
@@ -60,7 +67,15 @@ public class ProtocolDecoder {
                 for (int i = 0; i < height; i++) {
                     rows[i] = parts[3 + i];
                 }
-                yield new LevelDataMessage(width, height, rows);
+                int[] ids = new int[0];
+                if (parts.length > 3 + height && !parts[3 + height].isEmpty()) {
+                    String[] idParts = parts[3 + height].split(",");
+                    ids = new int[idParts.length];
+                    for (int i = 0; i < idParts.length; i++) {
+                        ids[i] = Integer.parseInt(idParts[i]);
+                    }
+                }
+                yield new LevelDataMessage(width, height, rows, ids);
             }
             case "LEVEL_VOTE" -> {
                 if (parts.length < 3) {
@@ -89,6 +104,15 @@ public class ProtocolDecoder {
                 boolean accepted = parts.length > 2 && "1".equals(parts[2]);
                 yield new RestartResponseMessage(clientId, accepted);
             }
+            case "HINT_REQUEST" -> {
+                String clientId = parts.length > 1 ? unescape(parts[1]) : "";
+                yield new HintRequestMessage(clientId);
+            }
+            case "HINT" -> {
+                if (parts.length < 3) throw new IllegalArgumentException("Invalid HINT");
+                InputMessage.InputType move = InputMessage.InputType.valueOf(parts[1]);
+                yield new HintMessage(move, Integer.parseInt(parts[2]));
+            }
 
             default -> throw new IllegalArgumentException("Unknown message type: " + typeStr);
         };
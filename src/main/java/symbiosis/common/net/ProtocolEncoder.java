@@ -7,12 +7,13 @@ public class ProtocolEncoder {
             case JOIN -> {
                 JoinMessage m = (JoinMessage) msg;
                 String role = m.getPreferredRole() != null ? m.getPreferredRole() : "";
-                String levelStr = m.getPreferredLevel() >= 0
+                String levelStr = m.getPreferredLevel() != -1
                         ? Integer.toString(m.getPreferredLevel())
                         : "";
                 return "JOIN|" + escape(m.getPlayerName())
                         + "|" + escape(role)
-                        + "|" + levelStr;
+                        + "|" + levelStr
+                        + "|" + escape(m.getCapabilities());
             }
             case CHAT -> {
                 ChatMessage m = (ChatMessage) msg;
@@ -28,7 +29,8 @@ public class ProtocolEncoder {
             }
             case INPUT -> {
                 InputMessage m = (InputMessage) msg;
-                return "INPUT|" + escape(m.getClientId()) + "|" + m.getInputType().name();
+                String line = "INPUT|" + escape(m.getClientId()) + "|" + m.getInputType().name();
+                return m.getSeq() > 0 ? line + "|" + m.getSeq() : line;
             }
             case STATE_UPDATE -> {
                 StateUpdateMessage m = (StateUpdateMessage) msg;
@@ -45,6 +47,16 @@ public class ProtocolEncoder {
                 for (String row : m.getRows()) {
                     sb.append("|").append(row);
                 }
+                int[] ids = m.getEntityIds();
+                if (ids.length > 0) {
+                    sb.append("|");
+                    for (int i = 0; i < ids.length; i++) {
+                        if (i > 0) {
+                            sb.append(",");
+                        }
+                        sb.append(ids[i]);
+                    }
+                }
                 return sb.toString();
             }
             case LEVEL_VOTE -> {
@@ -68,6 +80,14 @@ public class ProtocolEncoder {
                         + escape(m.getClientId()) + "|"
                         + (m.isAccepted() ? "1" : "0");
             }
+            case HINT_REQUEST -> {
+                HintRequestMessage m = (HintRequestMessage) msg;
+                return "HINT_REQUEST|" + escape(m.getClientId());
+            }
+            case HINT -> {
+                HintMessage m = (HintMessage) msg;
+                return "HINT|" + m.getMove().name() + "|" + m.getPushes();
+            }
             default -> throw new IllegalArgumentException("Unknown message type: " + msg.getType());
         }
     }
@@ -0,0 +1,6 @@
+package symbiosis.common.net;
+
+public enum WireFormat {
+    TEXT,
+    BINARY
+}
@@ -0,0 +1,146 @@
+package symbiosis.server;
+
+import symbiosis.common.net.*;
+
+public abstract class ClientConnection {
+
+    private static final int KEYFRAME_INTERVAL = 50;
+
+    protected final GameServer server;
+
+    private String clientId;
+    private ServerGameLogic room;
+    private volatile WireFormat wireFormat = WireFormat.TEXT;
+
+    private boolean deltaEnabled;
+    private StateSnapshot lastSentState;
+    private int updatesSinceKeyframe;
+    private int inputAck;
+    private int sentInputAck;
+
+    protected ClientConnection(GameServer server) {
+        this.server = server;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public ServerGameLogic getRoom() {
+        return room;
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    public abstract void send(Message msg);
+
+    public boolean acknowledgeInput(int seq) {
+        if (seq <= inputAck) {
+            return false;
+        }
+        inputAck = seq;
+        return true;
+    }
+
+    public void sendState(StateSnapshot state) {
+        boolean ackPending = inputAck != sentInputAck;
+        String payload = null;
+        if (deltaEnabled && lastSentState != null && updatesSinceKeyframe < KEYFRAME_INTERVAL) {
+            payload = state.toDeltaPayload(lastSentState);
+            if (payload != null && payload.isEmpty()) {
+                lastSentState = state;
+                if (!ackPending) {
+                    return;
+                }
+                payload = "U:1";
+            }
+        }
+
+        boolean keyframe = payload == null;
+        if (keyframe) {
+            payload = state.toPayload();
+            updatesSinceKeyframe = 0;
+        } else {
+            updatesSinceKeyframe++;
+        }
+
+        if (inputAck > 0 && (keyframe || ackPending)) {
+            payload = payload + ";Q:" + inputAck;
+            sentInputAck = inputAck;
+        }
+
+        lastSentState = state;
+        send(new StateUpdateMessage(payload));
+    }
+
+    protected byte[] encode(Message msg) {
+        return MessageWriter.encode(msg, wireFormat, server.getEncoder(), server.getBinaryCodec());
+    }
+
+    protected void handleMessage(Message msg) {
+
+        if (msg instanceof JoinMessage join) {
+            if (room != null) {
+                leaveRoom();
+            }
+            this.clientId = "C" + System.nanoTime();
+            wireFormat = server.isBinaryEnabled() && join.hasCapability(JoinMessage.CAP_BINARY)
+                    ? WireFormat.BINARY
+                    : WireFormat.TEXT;
+            deltaEnabled = join.hasCapability(JoinMessage.CAP_DELTA);
+            lastSentState = null;
+            inputAck = 0;
+            sentInputAck = 0;
+            System.out.println("JOIN from " + join.getPlayerName() + " -> clientId=" + clientId
+                    + " (" + wireFormat + ")");
+            room = server.joinRoom(this, join);
+            return;
+        }
+
+        if (room == null) {
+            send(new ErrorMessage("NOT_JOINED", "Send JOIN first"));
+            return;
+        }
+
+        if (msg instanceof InputMessage input) {
+            room.handleInput(input);
+        }
+
+        else if (msg instanceof ChatMessage chat) {
+            room.handleChat(chat);
+        }
+
+        else if (msg instanceof LevelVoteMessage vote) {
+            room.handleLevelVote(this, vote);
+        }
+
+
+        else if (msg instanceof RestartRequestMessage req) {
+            room.handleRestartRequest(this, req);
+        }
+
+        else if (msg instanceof RestartResponseMessage resp) {
+            room.handleRestartResponse(this, resp);
+        }
+
+        else if (msg instanceof HintRequestMessage req) {
+            room.handleHintRequest(this, req);
+        }
+    }
+
+    protected void onDisconnected() {
+        if (room != null) {
+            leaveRoom();
+        }
+        server.removeClient(this);
+    }
+
+    private void leaveRoom() {
+        ServerGameLogic current = room;
+        room = null;
+        current.handleDisconnect(this);
+        server.releaseRoom(current);
+    }
+}
@@ -4,48 +4,55 @@ import symbiosis.common.net.*;
 
 import java.io.*;
 import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ClientHandler implements Runnable {
+public class ClientHandler extends ClientConnection implements Runnable {
+
+    private static final int MAX_PENDING_BYTES = 1024 * 1024;
+    private static final byte[] CLOSE = new byte[0];
 
     private final Socket socket;
-    private final GameServer server;
 
-    private final ProtocolEncoder encoder;
     private final ProtocolDecoder decoder;
 
-    private BufferedReader in;
-    private PrintWriter out;
+    private MessageReader in;
 
-    private String clientId;
+    private final BlockingQueue<byte[]> writeQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pendingBytes = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public ClientHandler(Socket socket,
                          GameServer server,
-                         ProtocolEncoder encoder,
                          ProtocolDecoder decoder) {
+        super(server);
         this.socket = socket;
-        this.server = server;
-        this.encoder = encoder;
         this.decoder = decoder;
     }
 
-    public String getClientId() {
-        return clientId;
-    }
-
     @Override
     public void run() {
         try {
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
-
-            String line;
-            while ((line = in.readLine()) != null) {
+            in = new MessageReader(socket.getInputStream(), decoder, server.getBinaryCodec());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            Thread reader = Thread.currentThread();
+            Thread.Builder writer = reader.isVirtual() ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+            writer.name(reader.getName() + "-writer").start(() -> writeLoop(out));
+
+            while (true) {
+                Message msg;
                 try {
-                    Message msg = decoder.decode(line);
-                    handleMessage(msg);
+                    msg = in.read();
                 } catch (IllegalArgumentException e) {
                     send(new ErrorMessage("BAD_MESSAGE", e.getMessage()));
+                    continue;
                 }
+                if (msg == null) {
+                    break;
+                }
+                handleMessage(msg);
             }
         } catch (IOException e) {
             System.out.println("Client disconnected: " + e.getMessage());
@@ -54,48 +61,50 @@ public class ClientHandler implements Runnable {
         }
     }
 
-    private void handleMessage(Message msg) {
-
-        if (msg instanceof JoinMessage join) {
-            this.clientId = "C" + System.nanoTime();
-            System.out.println("JOIN from " + join.getPlayerName() + " -> clientId=" + clientId);
-            server.getGameLogic().handleJoin(this, join);
-        }
-
-        else if (msg instanceof InputMessage input) {
-            server.getGameLogic().handleInput(input);
-        }
-
-        else if (msg instanceof ChatMessage chat) {
-            server.getGameLogic().handleChat(chat);
-        }
-
-        else if (msg instanceof LevelVoteMessage vote) {
-            server.getGameLogic().handleLevelVote(this, vote);
-        }
-
-
-        else if (msg instanceof RestartRequestMessage req) {
-            server.getGameLogic().handleRestartRequest(this, req);
+    @Override
+    public void send(Message msg) {
+        if (closed.get()) {
+            return;
         }
-
-        else if (msg instanceof RestartResponseMessage resp) {
-            server.getGameLogic().handleRestartResponse(this, resp);
+        byte[] bytes = encode(msg);
+        if (pendingBytes.addAndGet(bytes.length) > MAX_PENDING_BYTES) {
+            System.out.println("Client too slow, dropping: " + getClientId());
+            closeSocket();
+            return;
         }
+        writeQueue.add(bytes);
     }
 
-    public void send(Message msg) {
-        String line = encoder.encode(msg);
-        out.println(line);
+    private void writeLoop(OutputStream out) {
+        try {
+            while (true) {
+                byte[] bytes = writeQueue.take();
+                if (bytes == CLOSE) {
+                    return;
+                }
+                out.write(bytes);
+                pendingBytes.addAndGet(-bytes.length);
+                if (writeQueue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            closeSocket();
+        }
     }
 
-    private void close() {
-        server.getGameLogic().handleDisconnect(this);
-
-        server.removeClient(this);
+    private void closeSocket() {
         try {
             socket.close();
         } catch (IOException ignored) {
         }
     }
+
+    private void close() {
+        closed.set(true);
+        writeQueue.clear();
+        writeQueue.add(CLOSE);
+        onDisconnected();
+        closeSocket();
+    }
 }
@@ -1,61 +1,344 @@
 package symbiosis.server;
 
+import symbiosis.common.level.CaveGenerator;
+import symbiosis.common.level.LevelCatalog;
+import symbiosis.common.model.PlayerRole;
+import symbiosis.common.net.BinaryCodec;
+import symbiosis.common.net.JoinMessage;
 import symbiosis.common.net.ProtocolDecoder;
 import symbiosis.common.net.ProtocolEncoder;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class GameServer {
 
+    public enum Transport {
+        NIO,
+        THREAD,
+        VIRTUAL
+    }
+
     private final int port;
+    private final Transport transport;
+    private final int eventLoopCount;
 
-    private final List<ClientHandler> clients = new ArrayList<>();
+    private final Set<ClientConnection> clients = ConcurrentHashMap.newKeySet();
 
     private final ProtocolEncoder encoder = new ProtocolEncoder();
     private final ProtocolDecoder decoder = new ProtocolDecoder();
+    private final BinaryCodec binaryCodec = new BinaryCodec();
+    private volatile boolean binaryEnabled = true;
+    private volatile int tickRate = 30;
+    private volatile LevelCatalog levelCatalog = LevelCatalog.shared();
+    private final ForkJoinPool solverPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private volatile GeneratedLevelPool generatedLevels = createLevelPool(CaveGenerator.forSize(20, 15));
+    private ScheduledExecutorService ticker;
 
     private volatile boolean running = false;
 
-    private final ServerGameLogic gameLogic;
+    private final ReentrantLock roomsLock = new ReentrantLock();
+    private final Map<Integer, ServerGameLogic> rooms = new LinkedHashMap<>();
+    private final Map<PlayerRole, LinkedHashSet<ServerGameLogic>> openRooms = new EnumMap<>(PlayerRole.class);
+    private final AtomicInteger nextRoomId = new AtomicInteger(1);
+    private volatile ServerGameLogic[] tickRooms = new ServerGameLogic[0];
 
     public GameServer(int port) {
+        this(port, Transport.NIO, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    public GameServer(int port, Transport transport, int eventLoopCount) {
         this.port = port;
-        this.gameLogic = new ServerGameLogic(this);
+        this.transport = transport;
+        this.eventLoopCount = eventLoopCount;
+        for (PlayerRole role : PlayerRole.values()) {
+            openRooms.put(role, new LinkedHashSet<>());
+        }
     }
 
     public void start() {
         running = true;
+        generatedLevels.start();
+        if (tickRate > 0) {
+            startTicker();
+        }
+        if (transport == Transport.NIO) {
+            startNio();
+        } else {
+            startBlocking();
+        }
+    }
+
+    private void startTicker() {
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("RoomTicker").factory());
+        long period = TimeUnit.SECONDS.toNanos(1) / tickRate;
+        ticker.scheduleAtFixedRate(this::tickRooms, period, period, TimeUnit.NANOSECONDS);
+        System.out.println("Room tick rate: " + tickRate + " Hz");
+    }
+
+    private void tickRooms() {
+        for (ServerGameLogic room : tickRooms) {
+            try {
+                room.tick();
+            } catch (RuntimeException e) {
+                System.out.println("Room " + room.getRoomId() + " tick failed: " + e);
+            }
+        }
+    }
+
+    private void startNio() {
+        NioEventLoop[] loops = new NioEventLoop[eventLoopCount];
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new NioEventLoop(this);
+                loops[i].start("NioEventLoop-" + i);
+            }
+            System.out.println("GameServer listening on port " + port
+                    + " (nio, " + loops.length + " event loops)");
+
+            int next = 0;
+            while (running) {
+                SocketChannel channel = serverChannel.accept();
+                System.out.println("Client connected: " + channel.getRemoteAddress());
+                loops[next].register(channel);
+                next = (next + 1) % loops.length;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (NioEventLoop loop : loops) {
+                if (loop != null) {
+                    loop.stop();
+                }
+            }
+        }
+    }
+
+    private void startBlocking() {
+        boolean virtual = transport == Transport.VIRTUAL;
+        ThreadFactory threads = virtual
+                ? Thread.ofVirtual().name("ClientHandler-", 0).factory()
+                : Thread.ofPlatform().name("ClientHandler-", 0).factory();
+
         try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("GameServer listening on port " + port);
+            System.out.println("GameServer listening on port " + port
+                    + (virtual ? " (virtual thread per client)" : " (thread per client)"));
             while (running) {
                 Socket socket = serverSocket.accept();
                 System.out.println("Client connected: " + socket);
-                ClientHandler handler = new ClientHandler(socket, this, encoder, decoder);
-                synchronized (clients) {
-                    clients.add(handler);
-                }
-                new Thread(handler, "ClientHandler-" + socket.getPort()).start();
+                ClientHandler handler = new ClientHandler(socket, this, decoder);
+                addClient(handler);
+                threads.newThread(handler).start();
             }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public void removeClient(ClientHandler handler) {
-        synchronized (clients) {
-            clients.remove(handler);
-        }
+    public void addClient(ClientConnection connection) {
+        clients.add(connection);
+    }
+
+    public void removeClient(ClientConnection connection) {
+        clients.remove(connection);
     }
 
-    public List<ClientHandler> getClients() {
+    public Set<ClientConnection> getClients() {
         return clients;
     }
 
-    public ServerGameLogic getGameLogic() {
-        return gameLogic;
+    public ProtocolEncoder getEncoder() {
+        return encoder;
+    }
+
+    public ProtocolDecoder getDecoder() {
+        return decoder;
+    }
+
+    public BinaryCodec getBinaryCodec() {
+        return binaryCodec;
+    }
+
+    public boolean isBinaryEnabled() {
+        return binaryEnabled;
+    }
+
+    public void setBinaryEnabled(boolean binaryEnabled) {
+        this.binaryEnabled = binaryEnabled;
+    }
+
+    public LevelCatalog getLevelCatalog() {
+        return levelCatalog;
+    }
+
+    public void setLevelCatalog(LevelCatalog levelCatalog) {
+        this.levelCatalog = levelCatalog;
+    }
+
+    public ForkJoinPool getSolverPool() {
+        return solverPool;
+    }
+
+    public GeneratedLevelPool getGeneratedLevels() {
+        return generatedLevels;
+    }
+
+    public void setLevelGenerator(CaveGenerator generator) {
+        GeneratedLevelPool previous = generatedLevels;
+        generatedLevels = createLevelPool(generator);
+        previous.stop();
+        if (running) {
+            generatedLevels.start();
+        }
+    }
+
+    private static GeneratedLevelPool createLevelPool(CaveGenerator generator) {
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        return new GeneratedLevelPool(generator, 4, workers, System.nanoTime());
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public void setTickRate(int tickRate) {
+        this.tickRate = Math.max(0, tickRate);
+    }
+
+    public ServerGameLogic joinRoom(ClientConnection handler, JoinMessage join) {
+        PlayerRole requested = parseRole(join.getPreferredRole());
+
+        while (true) {
+            ServerGameLogic room = null;
+            PlayerRole role;
+            roomsLock.lock();
+            try {
+                role = openRole(requested);
+                if (role != null) {
+                    room = reserve(role);
+                }
+            } finally {
+                roomsLock.unlock();
+            }
+
+            if (room == null) {
+                ServerGameLogic created = new ServerGameLogic(this, nextRoomId.getAndIncrement());
+                int roomCount;
+                roomsLock.lock();
+                try {
+                    role = openRole(requested);
+                    if (role != null) {
+                        room = reserve(role);
+                    } else {
+                        role = requested != null ? requested : PlayerRole.FISH;
+                        room = created;
+                        publish(room, role);
+                    }
+                    roomCount = rooms.size();
+                } finally {
+                    roomsLock.unlock();
+                }
+                if (room == created) {
+                    System.out.println("Room " + room.getRoomId() + " created, rooms=" + roomCount);
+                }
+            }
+
+            if (room.handleJoin(handler, join, role)) {
+                return room;
+            }
+            removeRoom(room);
+        }
+    }
+
+    public void releaseRoom(ServerGameLogic room) {
+        if (room.isVacant() && removeRoom(room)) {
+            System.out.println("Room " + room.getRoomId() + " closed, rooms=" + getRoomCount());
+        }
+    }
+
+    private boolean removeRoom(ServerGameLogic room) {
+        roomsLock.lock();
+        try {
+            for (LinkedHashSet<ServerGameLogic> open : openRooms.values()) {
+                open.remove(room);
+            }
+            if (rooms.remove(room.getRoomId()) == null) {
+                return false;
+            }
+            updateTickRooms();
+            return true;
+        } finally {
+            roomsLock.unlock();
+        }
+    }
+
+    public int getRoomCount() {
+        roomsLock.lock();
+        try {
+            return rooms.size();
+        } finally {
+            roomsLock.unlock();
+        }
+    }
+
+    private void updateTickRooms() {
+        tickRooms = rooms.values().toArray(new ServerGameLogic[0]);
+    }
+
+    private PlayerRole openRole(PlayerRole requested) {
+        if (requested != null && !openRooms.get(requested).isEmpty()) {
+            return requested;
+        }
+        for (PlayerRole role : PlayerRole.values()) {
+            if (!openRooms.get(role).isEmpty()) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    private void publish(ServerGameLogic room, PlayerRole reserved) {
+        rooms.put(room.getRoomId(), room);
+        for (PlayerRole role : PlayerRole.values()) {
+            if (role != reserved) {
+                openRooms.get(role).add(room);
+            }
+        }
+        updateTickRooms();
+    }
+
+    private ServerGameLogic reserve(PlayerRole role) {
+        Iterator<ServerGameLogic> open = openRooms.get(role).iterator();
+        ServerGameLogic room = open.next();
+        open.remove();
+        return room;
+    }
+
+    static PlayerRole parseRole(String role) {
+        if ("FISH".equalsIgnoreCase(role)) {
+            return PlayerRole.FISH;
+        } else if ("CRAB".equalsIgnoreCase(role)) {
+            return PlayerRole.CRAB;
+        }
+        return null;
     }
 }
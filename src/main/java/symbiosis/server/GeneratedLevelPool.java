@@ -0,0 +1,75 @@
+package symbiosis.server;
+
+import symbiosis.common.level.CaveGenerator;
+import symbiosis.common.level.LevelTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GeneratedLevelPool {
+
+    private final CaveGenerator generator;
+    private final BlockingQueue<LevelTemplate> ready;
+    private final AtomicLong nextSeed;
+    private final int warmSize;
+    private final int workerCount;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public GeneratedLevelPool(CaveGenerator generator, int warmSize, int workerCount, long baseSeed) {
+        this.generator = generator;
+        this.warmSize = Math.max(1, warmSize);
+        this.ready = new ArrayBlockingQueue<>(this.warmSize);
+        this.workerCount = Math.max(1, workerCount);
+        this.nextSeed = new AtomicLong(baseSeed);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = Thread.ofPlatform()
+                    .name("CaveGenerator-" + i)
+                    .daemon(true)
+                    .priority(Thread.MIN_PRIORITY)
+                    .start(this::fill);
+            workers.add(worker);
+        }
+        System.out.println("Cave generator: " + generator.getWidth() + "x" + generator.getHeight()
+                + ", warm=" + warmSize + ", workers=" + workerCount);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        workers.clear();
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    public LevelTemplate poll() {
+        return ready.poll();
+    }
+
+    private void fill() {
+        while (running) {
+            try {
+                ready.put(generator.generate(nextSeed.getAndIncrement()));
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Cave generation failed: " + e.getMessage());
+            }
+        }
+    }
+}
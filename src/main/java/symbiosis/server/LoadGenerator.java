@@ -0,0 +1,135 @@
+package symbiosis.server;
+
+import symbiosis.common.net.*;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadGenerator {
+
+    private static final InputMessage.InputType[] MOVES = {
+            InputMessage.InputType.MOVE_UP,
+            InputMessage.InputType.MOVE_DOWN,
+            InputMessage.InputType.MOVE_LEFT,
+            InputMessage.InputType.MOVE_RIGHT,
+            InputMessage.InputType.ACTION
+    };
+
+    private final String host;
+    private final int port;
+    private final int clientCount;
+    private final int durationSeconds;
+    private final int movesPerSecond;
+
+    private final ProtocolEncoder encoder = new ProtocolEncoder();
+    private final ProtocolDecoder decoder = new ProtocolDecoder();
+
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger joined = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public LoadGenerator(String host, int port, int clientCount, int durationSeconds, int movesPerSecond) {
+        this.host = host;
+        this.port = port;
+        this.clientCount = clientCount;
+        this.durationSeconds = durationSeconds;
+        this.movesPerSecond = movesPerSecond;
+    }
+
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientCount; i++) {
+                int index = i;
+                executor.submit(() -> runClient(index));
+            }
+
+            for (int s = 0; s < durationSeconds; s++) {
+                TimeUnit.SECONDS.sleep(1);
+                System.out.println("t=" + (s + 1) + "s connected=" + connected.get()
+                        + " joined=" + joined.get() + " failed=" + failed.get()
+                        + " sent=" + sent.get() + " received=" + received.get());
+            }
+            running = false;
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Done in %.1fs: %d inputs sent, %d messages received%n",
+                seconds, sent.get(), received.get());
+    }
+
+    private void runClient(int index) {
+        try (Socket socket = new Socket(host, port)) {
+            connected.incrementAndGet();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            write(out, new JoinMessage("load-" + index));
+
+            String clientId = null;
+            String line;
+            while (clientId == null && (line = in.readLine()) != null) {
+                received.incrementAndGet();
+                if (decoder.decode(line) instanceof RoleAssignedMessage role) {
+                    clientId = role.getPlayerId();
+                }
+            }
+            if (clientId == null) {
+                failed.incrementAndGet();
+                return;
+            }
+            joined.incrementAndGet();
+
+            Thread.ofVirtual().start(() -> drain(in));
+
+            long pauseMillis = Math.max(1, 1000L / movesPerSecond);
+            while (running) {
+                InputMessage.InputType move = MOVES[ThreadLocalRandom.current().nextInt(MOVES.length)];
+                write(out, new InputMessage(clientId, move));
+                sent.incrementAndGet();
+                Thread.sleep(pauseMillis);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            failed.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain(BufferedReader in) {
+        try {
+            while (in.readLine() != null) {
+                received.incrementAndGet();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void write(Writer out, Message msg) throws IOException {
+        out.write(encoder.encode(msg));
+        out.write('\n');
+        out.flush();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5555;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int duration = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int movesPerSecond = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+
+        new LoadGenerator(host, port, clients, duration, movesPerSecond).run();
+    }
+}
@@ -0,0 +1,223 @@
+package symbiosis.server;
+
+import symbiosis.common.net.BinaryCodec;
+import symbiosis.common.net.ErrorMessage;
+import symbiosis.common.net.Message;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NioConnection extends ClientConnection {
+
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_FRAME_LENGTH = BinaryCodec.MAX_FRAME_LENGTH;
+    private static final int MAX_PENDING_BYTES = 1024 * 1024;
+
+    private enum ReadState {
+        START,
+        LINE,
+        FRAME_LENGTH,
+        FRAME_PAYLOAD
+    }
+
+    private final NioEventLoop loop;
+    private final SocketChannel channel;
+    private SelectionKey key;
+
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private ReadState readState = ReadState.START;
+    private byte[] frameBuffer = new byte[256];
+    private int frameLength = 0;
+    private int expectedLength = 0;
+    private int lengthShift = 0;
+
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingBytes = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public NioConnection(GameServer server, NioEventLoop loop, SocketChannel channel) {
+        super(server);
+        this.loop = loop;
+        this.channel = channel;
+    }
+
+    void attach(SelectionKey key) {
+        this.key = key;
+    }
+
+    @Override
+    public void send(Message msg) {
+        if (closed.get()) {
+            return;
+        }
+        byte[] bytes = encode(msg);
+        if (pendingBytes.addAndGet(bytes.length) > MAX_PENDING_BYTES) {
+            System.out.println("Client too slow, dropping: " + getClientId());
+            loop.execute(this::close);
+            return;
+        }
+        writeQueue.add(ByteBuffer.wrap(bytes));
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+    }
+
+    void handleRead() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            System.out.println("Client disconnected: " + e.getMessage());
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && !closed.get()) {
+            byte b = readBuffer.get();
+            switch (readState) {
+                case START -> {
+                    if (b == BinaryCodec.FRAME_MARKER) {
+                        expectedLength = 0;
+                        lengthShift = 0;
+                        readState = ReadState.FRAME_LENGTH;
+                    } else {
+                        readState = ReadState.LINE;
+                        acceptLineByte(b);
+                    }
+                }
+                case LINE -> acceptLineByte(b);
+                case FRAME_LENGTH -> {
+                    if (lengthShift > 28 || (lengthShift == 28 && (b & 0xF0) != 0)) {
+                        System.out.println("Malformed frame length, dropping: " + getClientId());
+                        close();
+                        break;
+                    }
+                    expectedLength |= (b & 0x7F) << lengthShift;
+                    lengthShift += 7;
+                    if ((b & 0x80) == 0) {
+                        if (expectedLength < 0 || expectedLength > MAX_FRAME_LENGTH) {
+                            System.out.println("Frame too long, dropping: " + getClientId());
+                            close();
+                        } else if (expectedLength == 0) {
+                            processFrame();
+                        } else {
+                            readState = ReadState.FRAME_PAYLOAD;
+                        }
+                    }
+                }
+                case FRAME_PAYLOAD -> {
+                    append(b);
+                    if (frameLength == expectedLength) {
+                        processFrame();
+                    }
+                }
+            }
+        }
+        readBuffer.clear();
+    }
+
+    private void acceptLineByte(byte b) {
+        if (b == '\n') {
+            processLine();
+        } else if (frameLength >= MAX_LINE_LENGTH) {
+            System.out.println("Line too long, dropping: " + getClientId());
+            close();
+        } else {
+            append(b);
+        }
+    }
+
+    private void append(byte b) {
+        if (frameLength == frameBuffer.length) {
+            frameBuffer = Arrays.copyOf(frameBuffer, frameLength * 2);
+        }
+        frameBuffer[frameLength++] = b;
+    }
+
+    private void processLine() {
+        int length = frameLength;
+        if (length > 0 && frameBuffer[length - 1] == '\r') {
+            length--;
+        }
+        String line = new String(frameBuffer, 0, length, StandardCharsets.UTF_8);
+        resetFrame();
+
+        try {
+            Message msg = server.getDecoder().decode(line);
+            handleMessage(msg);
+        } catch (IllegalArgumentException e) {
+            send(new ErrorMessage("BAD_MESSAGE", e.getMessage()));
+        }
+    }
+
+    private void processFrame() {
+        ByteBuffer frame = ByteBuffer.wrap(frameBuffer, 0, frameLength);
+        try {
+            Message msg = server.getBinaryCodec().decode(frame);
+            resetFrame();
+            handleMessage(msg);
+        } catch (IllegalArgumentException e) {
+            resetFrame();
+            send(new ErrorMessage("BAD_MESSAGE", e.getMessage()));
+        }
+    }
+
+    private void resetFrame() {
+        frameLength = 0;
+        readState = ReadState.START;
+    }
+
+    void flush() {
+        flushScheduled.set(false);
+        if (closed.get()) {
+            return;
+        }
+
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                int written = channel.write(buffer);
+                pendingBytes.addAndGet(-written);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            System.out.println("Client disconnected: " + e.getMessage());
+            close();
+        }
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        writeQueue.clear();
+        onDisconnected();
+    }
+}
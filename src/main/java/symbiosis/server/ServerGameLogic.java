@@ -1,457 +1,385 @@
 package symbiosis.server;
 
+import symbiosis.common.level.LevelCatalog;
+import symbiosis.common.level.LevelTemplate;
+import symbiosis.common.level.PuzzleSolver;
+import symbiosis.common.level.Solution;
 import symbiosis.common.model.*;
 import symbiosis.common.net.*;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ServerGameLogic {
 
+    private static final int MAX_QUEUED_INPUTS = 8;
+    private static final int MAX_INPUTS_PER_TICK = 2;
+    private static final long HINT_STATE_LIMIT = 1_000_000;
+
     private final GameServer server;
+    private final int roomId;
+    private final ReentrantLock lock = new ReentrantLock();
     private GameState gameState;
+    private OccupancyGrid occupancy;
+
+    private final List<ClientConnection> clients = new ArrayList<>();
+    private boolean closed = false;
 
-    private ClientHandler fishClient;
-    private ClientHandler crabClient;
+    private ClientConnection fishClient;
+    private ClientConnection crabClient;
 
-    private final String[][] levels;
+    private final LevelCatalog levels;
+    private LevelTemplate level;
+    private LevelDataMessage levelData;
+    private PuzzleSolver solver;
+    private final List<ClientConnection> hintWaiters = new ArrayList<>();
     private int currentLevelIndex = 0;
+    private int levelEpoch = 0;
+    private int nextEntityId = 0;
 
     private Integer fishVote = null;
     private Integer crabVote = null;
 
     private boolean restartRequested = false;
-    private ClientHandler restartRequester = null;
+    private ClientConnection restartRequester = null;
 
+    private final ArrayDeque<InputMessage> fishInputs = new ArrayDeque<>();
+    private final ArrayDeque<InputMessage> crabInputs = new ArrayDeque<>();
+    private int fishLatestSeq;
+    private int crabLatestSeq;
+    private boolean stateDirty = false;
+    private StateSnapshot lastSnapshot;
 
-    public ServerGameLogic(GameServer server) {
+    public ServerGameLogic(GameServer server, int roomId) {
         this.server = server;
+        this.roomId = roomId;
 
-        String[] level0 = new String[]{
-                "############",
-                "#..........#",
-                "#..D....L..#",
-                "#..####....#",
-                "#..#..M....#",
-                "#..#..B....#",
-                "#......E...#",
-                "############"
-        };
-
-        String[] level1 = new String[]{
-                "############",
-                "#..M....B..#",
-                "#..####....#",
-                "#..D.......#",
-                "#......L...#",
-                "#..B....M..#",
-                "#...E......#",
-                "############"
-        };
-
-        String[] level2 = new String[]{
-                "############",
-                "#..D....M..#",
-                "#..####....#",
-                "#..B....L..#",
-                "#..#..B....#",
-                "#..#....M..#",
-                "#...E......#",
-                "############"
-        };
-
-        String[] level3 = new String[]{
-                "############",
-                "#..M....B..#",
-                "###.####...#",
-                "#..D....L..#",
-                "#..B..M....#",
-                "#..####....#",
-                "#E.......B.#",
-                "############"
-        };
-
-        String[] level4 = new String[]{
-                "############",
-                "#M...B..D..#",
-                "#.####.###.#",
-                "#...L..M...#",
-                "#.B..###...#",
-                "#...B...M..#",
-                "#..E.......#",
-                "############"
-        };
-
-        String[] level5 = new String[]{
-                "############",
-                "#..M....B..#",
-                "#.####.###.#",
-                "#..D....L..#",
-                "#..B..M....#",
-                "#.####.###.#",
-                "#....B.....#",
-                "#..M....B..#",
-                "#...E......#",
-                "############"
-        };
-
-        String[] level6 = new String[]{
-                "##################",
-                "#..M..###....L..E#",
-                "#.##..#..B..###..#",
-                "#..B..#..#..M..#.#",
-                "#..##.####.##..#.#",
-                "#..M..B..D..B..#.#",
-                "#..L..#..M..#..#.#",
-                "#..#..####..#..#.#",
-                "#..#..B..B..#..#.#",
-                "#..####..####..#.#",
-                "#M.....L....M..#.#",
-                "#.####.##.####.#.#",
-                "#..B..D..B..L..B.#",
-                "#..M......M....E.#",
-                "##################"
-        };
-
-        String[] level7 = new String[]{
-                "##################",
-                "#..M..###..B....E#",
-                "#.##B.#..######..#",
-                "#..#..#B..M..#..##",
-                "##.#..####.#..#..#",
-                "#..#..D..#.#B.#..#",
-                "#B.####.#.#.#.##B#",
-                "#..#M..#.#.#..#..#",
-                "#..##..#.#.##.#B.#",
-                "#..#..#.#B..#....#",
-                "#.M#B.#.####.#.###",
-                "#..#.......M.#...#",
-                "#B.####.##.###.#.#",
-                "#..M..B..L.....#.#",
-                "##################"
-        };
-
-        String[] level8 = new String[]{
-                "####################",
-                "#..M....B....###..E#",
-                "#.####.###.B.###.###",
-                "#.#..B..#...#..M...#",
-                "#.#.####.#.###.###.#",
-                "#.#....M.#...B.#...#",
-                "#.######.#####.#.###",
-                "#..B..D....#...#..L#",
-                "###.######.#.###.###",
-                "#...#....B.#...#...#",
-                "#.###.####.###.#.#.#",
-                "#...M..B..#...#.#..#",
-                "#.#####.###.###.#B.#",
-                "#M....B.....M..B...#",
-                "####################"
-        };
-
-        String[] level9 = new String[]{
-                "####################",
-                "#..M.B.....##....E.#",
-                "#.####.##.#.#####.##",
-                "#..#.#..B.#.....#..#",
-                "##.#.####.###.#.##.#",
-                "#..#....M.B.#.#....#",
-                "#B.####.#####.#.####",
-                "#..#..D....#..#..L.#",
-                "###.#.######.##.##.#",
-                "#...#....B..#..B...#",
-                "#.###.####.###.###.#",
-                "#...M..B..#...#M#B.#",
-                "#.#####.###.###.#..#",
-                "#M..B..D..L.....M..#",
-                "####################"
-        };
-
-        String[] level10 = new String[]{
-                "####################",
-                "#..M..B..###....E..#",
-                "#.####.##.###.####.#",
-                "#.#..B..M..#..B..#.#",
-                "#.#.######.#.##.#..#",
-                "#.#....D..B#....#M.#",
-                "#..#####.###.##.####",
-                "#..B..#...M.#..B..L#",
-                "###.#.#.#####.###.##",
-                "#...#.#...B..#.....#",
-                "#.###.###.###.###..#",
-                "#M..B...M.#..B..#..#",
-                "####.#####.#.####.##",
-                "#..M.....L..B..M...#",
-                "####################"
-        };
-
-        this.levels = new String[][]{
-                level0, level1, level2, level3, level4, level5, level6, level7, level8, level9, level10
-        };
+        this.levels = server.getLevelCatalog();
 
         this.gameState = loadLevel(0);
     }
 
-    private TileType charToTile(char c) {
-        return switch (c) {
-            case '#' -> TileType.WALL;
-            case 'E' -> TileType.EXIT;
-            case 'D' -> TileType.DARK_TILE;
-            case 'L' -> TileType.LIGHT_TILE;
-            default -> TileType.EMPTY;
-        };
+    public int getRoomId() {
+        return roomId;
     }
 
-    private GameState loadLevel(int levelIndex) {
-        String[] rows = levels[levelIndex];
-        int height = rows.length;
-        int width = rows[0].length();
-
-        CaveMap map = new CaveMap(width, height);
+    public boolean isVacant() {
+        lock.lock();
+        try {
+            return closed || (fishClient == null && crabClient == null);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        for (int y = 0; y < height; y++) {
-            String row = rows[y];
-            for (int x = 0; x < width; x++) {
-                char c = row.charAt(x);
-                map.setTile(x, y, charToTile(c));
+    private GameState loadLevel(int levelIndex) {
+        if (levelIndex == LevelCatalog.GENERATED_LEVEL) {
+            LevelTemplate generated = server.getGeneratedLevels().poll();
+            if (generated != null) {
+                return loadLevel(generated);
             }
+            System.out.println("Room " + roomId + ": no generated level ready, using the first built-in level");
+            levelIndex = 0;
         }
+        return loadLevel(levels.getTemplate(levelIndex));
+    }
 
-        GameState state = new GameState(map);
+    private GameState loadLevel(LevelTemplate template) {
+        levelEpoch++;
+        fishInputs.clear();
+        crabInputs.clear();
+        acknowledgeInput(fishClient, fishLatestSeq);
+        acknowledgeInput(crabClient, crabLatestSeq);
+        level = template;
+        int firstEntityId = nextEntityId;
+        int[] entityIds = new int[level.getObjectCount()];
+        for (int i = 0; i < entityIds.length; i++) {
+            entityIds[i] = nextEntityId++;
+        }
+        levelData = new LevelDataMessage(level.getMap().getWidth(), level.getMap().getHeight(),
+                level.getRows(), entityIds);
+
+        GameState state = level.newGameState(firstEntityId);
         state.setLevelCompleted(false);
-
-        for (int y = 0; y < height; y++) {
-            String row = rows[y];
-            for (int x = 0; x < width; x++) {
-                char c = row.charAt(x);
-                switch (c) {
-                    case 'M' -> state.getObjects()
-                            .add(new GameObject(ObjectType.MUSHROOM, new Position(x, y)));
-                    case 'B' -> state.getObjects()
-                            .add(new GameObject(ObjectType.BOX, new Position(x, y)));
-                }
-            }
-        }
+        occupancy = level.newOccupancy();
         return state;
     }
 
     private void placePlayersForCurrentLevel() {
         if (gameState.getFish() != null) {
-            Position fishPos = new Position(1, 1);
-            gameState.getFish().setPosition(fishPos);
+            gameState.getFish().setPosition(level.getFishSpawn());
         }
-
         if (gameState.getCrab() != null) {
-            Position crabPos;
-
-            if (currentLevelIndex == 0) {
-                crabPos = new Position(2, 5);
-            } else if (currentLevelIndex == 1) {
-                crabPos = new Position(10, 5);
-            } else if (currentLevelIndex == 2) {
-                crabPos = new Position(2, 6);
-            } else if (currentLevelIndex == 3) {
-                crabPos = new Position(9, 6);
-            } else if (currentLevelIndex == 4) {
-                crabPos = new Position(2, 6);
-            } else if (currentLevelIndex == 5) {
-                crabPos = new Position(9, 7);
-            } else if (currentLevelIndex == 6) {
-                crabPos = new Position(7, 5);
-            } else if (currentLevelIndex == 7) {
-                crabPos = new Position(5, 7);
-            } else if (currentLevelIndex == 8) {
-                crabPos = new Position(1, 5);
-            } else if (currentLevelIndex == 10) {
-                crabPos = new Position(5, 1);
-            } else {
-                crabPos = new Position(2, 5);
-            }
-
-            gameState.getCrab().setPosition(crabPos);
+            gameState.getCrab().setPosition(level.getCrabSpawn());
         }
     }
 
-    public synchronized void handleJoin(ClientHandler handler, JoinMessage msg) {
-        String name = msg.getPlayerName();
-
-        if (fishClient == null && crabClient == null) {
-            int prefLevel = msg.getPreferredLevel();
-            if (prefLevel >= 0 && prefLevel < levels.length) {
-                currentLevelIndex = prefLevel;
-                this.gameState = loadLevel(currentLevelIndex);
+    public boolean handleJoin(ClientConnection handler, JoinMessage msg, PlayerRole assignedRole) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
             }
-        }
 
-        String prefRoleStr = msg.getPreferredRole();
-        PlayerRole requested = null;
-        if (prefRoleStr != null) {
-            if ("FISH".equalsIgnoreCase(prefRoleStr)) {
-                requested = PlayerRole.FISH;
-            } else if ("CRAB".equalsIgnoreCase(prefRoleStr)) {
-                requested = PlayerRole.CRAB;
-            }
-        }
+            String name = msg.getPlayerName();
 
-        PlayerRole assignedRole;
+            if (fishClient == null && crabClient == null) {
+                int prefLevel = msg.getPreferredLevel();
+                if (isSelectableLevel(prefLevel)) {
+                    currentLevelIndex = prefLevel;
+                    this.gameState = loadLevel(currentLevelIndex);
+                }
+            }
 
-        if (requested == PlayerRole.FISH && fishClient == null) {
-            assignedRole = PlayerRole.FISH;
-            fishClient = handler;
-        } else if (requested == PlayerRole.CRAB && crabClient == null) {
-            assignedRole = PlayerRole.CRAB;
-            crabClient = handler;
-        } else {
-            if (fishClient == null) {
-                assignedRole = PlayerRole.FISH;
+            if (assignedRole == PlayerRole.FISH && fishClient == null) {
                 fishClient = handler;
-            } else if (crabClient == null) {
-                assignedRole = PlayerRole.CRAB;
+            } else if (assignedRole == PlayerRole.CRAB && crabClient == null) {
                 crabClient = handler;
             } else {
-                handler.send(new ErrorMessage("FULL", "Server already has two players"));
-                return;
+                return false;
+            }
+
+            if (!clients.contains(handler)) {
+                clients.add(handler);
             }
+            System.out.println("Room " + roomId + ": " + name + " joined as " + assignedRole);
+
+            if (assignedRole == PlayerRole.FISH) {
+                fishLatestSeq = 0;
+                Player fish = new Player(handler.getClientId(), name, assignedRole, Position.of(1, 1));
+                gameState.setFish(fish);
+            } else {
+                crabLatestSeq = 0;
+                Player crab = new Player(handler.getClientId(), name, assignedRole, Position.of(2, 5));
+                gameState.setCrab(crab);
+            }
+
+            placePlayersForCurrentLevel();
+
+            handler.send(new RoleAssignedMessage(handler.getClientId(), assignedRole.name()));
+
+            handler.send(levelData);
+
+            publishState();
+            return true;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        if (assignedRole == PlayerRole.FISH) {
-            Player fish = new Player(handler.getClientId(), name, assignedRole, new Position(1, 1));
-            gameState.setFish(fish);
-        } else {
-            Player crab = new Player(handler.getClientId(), name, assignedRole, new Position(2, 5));
-            gameState.setCrab(crab);
+    public void handleInput(InputMessage msg) {
+        lock.lock();
+        try {
+            Player p = findPlayerById(msg.getClientId());
+            if (p == null) return;
+
+            if (server.getTickRate() > 0) {
+                boolean isFish = p.getRole() == PlayerRole.FISH;
+                ArrayDeque<InputMessage> queue = isFish ? fishInputs : crabInputs;
+                if (queue.size() < MAX_QUEUED_INPUTS) {
+                    queue.add(msg);
+                }
+                if (isFish) {
+                    fishLatestSeq = Math.max(fishLatestSeq, msg.getSeq());
+                } else {
+                    crabLatestSeq = Math.max(crabLatestSeq, msg.getSeq());
+                }
+                return;
+            }
+
+            boolean changed = applyInput(p, msg.getInputType());
+            if (changed) {
+                checkLevelCompleted();
+            }
+            if (acknowledgeInput(connectionFor(p), msg.getSeq()) || changed) {
+                broadcastState();
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        placePlayersForCurrentLevel();
+    public void tick() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
 
-        handler.send(new RoleAssignedMessage(handler.getClientId(), assignedRole.name()));
+            for (int i = 0; i < MAX_INPUTS_PER_TICK; i++) {
+                boolean applied = applyQueuedInput(fishInputs, gameState.getFish(), fishClient, fishLatestSeq);
+                applied |= applyQueuedInput(crabInputs, gameState.getCrab(), crabClient, crabLatestSeq);
+                if (!applied) {
+                    break;
+                }
+            }
 
-        handler.send(new LevelDataMessage(
-                gameState.getMap().getWidth(),
-                gameState.getMap().getHeight(),
-                levels[currentLevelIndex]
-        ));
+            if (stateDirty) {
+                stateDirty = false;
+                broadcastState();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        broadcastState();
+    private boolean applyQueuedInput(ArrayDeque<InputMessage> queue, Player p,
+                                     ClientConnection client, int latestSeq) {
+        InputMessage input = queue.poll();
+        if (input == null) {
+            return false;
+        }
+        if (p != null && applyInput(p, input.getInputType())) {
+            checkLevelCompleted();
+            stateDirty = true;
+        }
+        int ack = queue.isEmpty() ? Math.max(input.getSeq(), latestSeq) : input.getSeq();
+        if (acknowledgeInput(client, ack)) {
+            stateDirty = true;
+        }
+        return true;
+    }
+
+    private boolean acknowledgeInput(ClientConnection client, int seq) {
+        return client != null && seq > 0 && client.acknowledgeInput(seq);
     }
 
-    public synchronized void handleInput(InputMessage msg) {
-        Player p = findPlayerById(msg.getClientId());
-        if (p == null) return;
+    private ClientConnection connectionFor(Player p) {
+        return p.getRole() == PlayerRole.FISH ? fishClient : crabClient;
+    }
 
-        if (msg.getInputType() == InputMessage.InputType.ACTION && gameState.isLevelCompleted()) {
+    private boolean applyInput(Player p, InputMessage.InputType type) {
+        if (type == InputMessage.InputType.ACTION && gameState.isLevelCompleted()) {
             handlePostWinAction(p);
-            return;
+            return false;
         }
 
         Position pos = p.getPosition();
         int x = pos.getX();
         int y = pos.getY();
 
-        int dx = 0;
-        int dy = 0;
-
-        switch (msg.getInputType()) {
-            case MOVE_UP -> dy = -1;
-            case MOVE_DOWN -> dy = 1;
-            case MOVE_LEFT -> dx = -1;
-            case MOVE_RIGHT -> dx = 1;
+        switch (type) {
             case ACTION -> {
-                if (p.getRole() == PlayerRole.FISH) {
-                    activateMushroomAt(pos.getX(), pos.getY());
-                    checkLevelCompleted();
-                    broadcastState();
-                }
-                return;
+                return p.getRole() == PlayerRole.FISH && activateMushroomAt(pos.getX(), pos.getY());
             }
             case STOP -> {
-                return;
+                return false;
             }
         }
 
-        if (dx == 0 && dy == 0) return;
+        int dx = type.getDx();
+        int dy = type.getDy();
+        if (dx == 0 && dy == 0) return false;
 
         int targetX = x + dx;
         int targetY = y + dy;
 
-        GameObject boxAtTarget = findObjectAt(targetX, targetY, ObjectType.BOX);
-
-        if (boxAtTarget != null && p.getRole() == PlayerRole.CRAB) {
-            int boxTargetX = targetX + dx;
-            int boxTargetY = targetY + dy;
-
-            if (isWalkable(boxTargetX, boxTargetY)
-                    && !isObjectBlocking(boxTargetX, boxTargetY)) {
-                boxAtTarget.setPosition(new Position(boxTargetX, boxTargetY));
-                p.setPosition(new Position(targetX, targetY));
+        switch (MovementRules.resolve(gameState.getMap(), occupancy, p.getRole(), x, y, dx, dy)) {
+            case MovementRules.PUSH -> {
+                int boxTargetX = targetX + dx;
+                int boxTargetY = targetY + dy;
+                gameState.moveObject(occupancy.blockerAt(targetX, targetY), boxTargetX, boxTargetY);
+                occupancy.moveBlocker(targetX, targetY, boxTargetX, boxTargetY);
+                p.setPosition(Position.of(targetX, targetY));
             }
-        } else {
-            if (isWalkable(targetX, targetY) && !isObjectBlocking(targetX, targetY)) {
-                p.setPosition(new Position(targetX, targetY));
+            case MovementRules.MOVE -> {
+                p.setPosition(Position.of(targetX, targetY));
                 if (p.getRole() == PlayerRole.FISH) {
                     activateMushroomAt(targetX, targetY);
                 }
             }
+            default -> {
+                return false;
+            }
         }
-
-        checkLevelCompleted();
-        broadcastState();
+        return true;
     }
 
-    public synchronized void handleChat(ChatMessage msg) {
-        broadcast(msg);
+    public void handleChat(ChatMessage msg) {
+        lock.lock();
+        try {
+            broadcast(msg);
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void handleLevelVote(ClientHandler handler, LevelVoteMessage vote) {
-        int idx = vote.getLevelIndex();
+    public void handleLevelVote(ClientConnection handler, LevelVoteMessage vote) {
+        lock.lock();
+        try {
+            int idx = vote.getLevelIndex();
 
-        if (!gameState.isLevelCompleted()) {
-            handler.send(new ErrorMessage("VOTE_DENIED", "Голосовать можно только после победы"));
-            return;
-        }
-
-        if (idx < -1 || idx >= levels.length) {
-            handler.send(new ErrorMessage("BAD_VOTE", "Некорректный выбор уровня"));
-            return;
-        }
+            if (!gameState.isLevelCompleted()) {
+                handler.send(new ErrorMessage("VOTE_DENIED", "Голосовать можно только после победы"));
+                return;
+            }
 
-        if (handler == fishClient) {
-            fishVote = idx;
-            System.out.println("Fish voted for " + (idx == -1 ? "AUTO" : ("level " + idx)));
-        } else if (handler == crabClient) {
-            crabVote = idx;
-            System.out.println("Crab voted for " + (idx == -1 ? "AUTO" : ("level " + idx)));
-        } else {
-            return;
-        }
+            if (idx != -1 && !isSelectableLevel(idx)) {
+                handler.send(new ErrorMessage("BAD_VOTE", "Некорректный выбор уровня"));
+                return;
+            }
 
-        if (fishVote != null && crabVote != null) {
-            if (fishVote.equals(crabVote)) {
-                int chosen = fishVote;
+            if (handler == fishClient) {
+                fishVote = idx;
+                System.out.println("Fish voted for " + describeVote(idx));
+            } else if (handler == crabClient) {
+                crabVote = idx;
+                System.out.println("Crab voted for " + describeVote(idx));
+            } else {
+                return;
+            }
 
-                int targetLevel;
-                if (chosen == -1) {
-                    targetLevel = (currentLevelIndex + 1) % levels.length;
+            if (fishVote != null && crabVote != null) {
+                if (fishVote.equals(crabVote)) {
+                    int chosen = fishVote;
+
+                    int targetLevel;
+                    if (chosen == -1) {
+                        targetLevel = nextLevelIndex();
+                    } else {
+                        targetLevel = chosen;
+                    }
+
+                    currentLevelIndex = targetLevel;
+                    this.gameState = loadLevel(currentLevelIndex);
+                    recreatePlayersAfterLevelChange();
+                    placePlayersForCurrentLevel();
+                    clearVotes();
+                    broadcastLevelDataToAll();
+                    publishState();
+                    System.out.println("VOTE AGREED: start level " + currentLevelIndex);
                 } else {
-                    targetLevel = chosen;
+                    broadcast(new ErrorMessage(
+                            "VOTE_FAIL",
+                            "Оба игрока должны выбрать один и тот же вариант (Auto или один и тот же уровень)"
+                    ));
+                    clearVotes();
+                    System.out.println("VOTE CONFLICT: fish=" + fishVote + ", crab=" + crabVote);
                 }
-
-                currentLevelIndex = targetLevel;
-                this.gameState = loadLevel(currentLevelIndex);
-                recreatePlayersAfterLevelChange();
-                placePlayersForCurrentLevel();
-                clearVotes();
-                broadcastLevelDataToAll();
-                broadcastState();
-                System.out.println("VOTE AGREED: start level " + currentLevelIndex);
-            } else {
-                broadcast(new ErrorMessage(
-                        "VOTE_FAIL",
-                        "Оба игрока должны выбрать один и тот же вариант (Auto или один и тот же уровень)"
-                ));
-                clearVotes();
-                System.out.println("VOTE CONFLICT: fish=" + fishVote + ", crab=" + crabVote);
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isSelectableLevel(int idx) {
+        return idx == LevelCatalog.GENERATED_LEVEL || (idx >= 0 && idx < levels.size());
+    }
+
+    private int nextLevelIndex() {
+        if (currentLevelIndex == LevelCatalog.GENERATED_LEVEL) {
+            return LevelCatalog.GENERATED_LEVEL;
+        }
+        return (currentLevelIndex + 1) % levels.size();
+    }
+
+    private static String describeVote(int idx) {
+        if (idx == -1) {
+            return "AUTO";
         }
+        return idx == LevelCatalog.GENERATED_LEVEL ? "GENERATED" : "level " + idx;
     }
 
     private void clearVotes() {
@@ -461,60 +389,32 @@ public class ServerGameLogic {
 
     private void handlePostWinAction(Player player) {
         if (player.getRole() == PlayerRole.FISH) {
-            currentLevelIndex = (currentLevelIndex + 1) % levels.length;
+            currentLevelIndex = nextLevelIndex();
             this.gameState = loadLevel(currentLevelIndex);
             recreatePlayersAfterLevelChange();
             placePlayersForCurrentLevel();
             clearVotes();
             broadcastLevelDataToAll();
-            broadcastState();
+            publishState();
             System.out.println("Next level (fallback): " + currentLevelIndex);
         } else if (player.getRole() == PlayerRole.CRAB) {
-            this.gameState = loadLevel(currentLevelIndex);
+            this.gameState = loadLevel(level);
             recreatePlayersAfterLevelChange();
             placePlayersForCurrentLevel();
             clearVotes();
             broadcastLevelDataToAll();
-            broadcastState();
+            publishState();
             System.out.println("Restart level (fallback): " + currentLevelIndex);
         }
     }
 
-    private boolean isWalkable(int x, int y) {
-        TileType tile = gameState.getMap().getTile(x, y);
-        return tile != TileType.WALL;
-    }
-
-    private boolean isObjectBlocking(int x, int y) {
-        for (GameObject obj : gameState.getObjects()) {
-            if (obj.getPosition().getX() == x && obj.getPosition().getY() == y) {
-                if (obj.getType() == ObjectType.BOX || obj.getType() == ObjectType.ROCK) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private GameObject findObjectAt(int x, int y, ObjectType type) {
-        for (GameObject obj : gameState.getObjects()) {
-            if (obj.getType() == type &&
-                    obj.getPosition().getX() == x &&
-                    obj.getPosition().getY() == y) {
-                return obj;
-            }
-        }
-        return null;
-    }
-
-    private void activateMushroomAt(int x, int y) {
-        for (GameObject obj : gameState.getObjects()) {
-            if (obj.getType() == ObjectType.MUSHROOM &&
-                    obj.getPosition().getX() == x &&
-                    obj.getPosition().getY() == y) {
-                obj.setActive(true);
-            }
+    private boolean activateMushroomAt(int x, int y) {
+        int index = occupancy.mushroomAt(x, y);
+        if (index < 0 || gameState.getObjectType(index) != ObjectType.MUSHROOM || gameState.isObjectActive(index)) {
+            return false;
         }
+        gameState.setObjectActive(index, true);
+        return true;
     }
 
     private void checkLevelCompleted() {
@@ -553,88 +453,46 @@ public class ServerGameLogic {
         if (fishClient != null) {
             String id = fishClient.getClientId();
             String name = "Fish";
-            Player fish = new Player(id, name, PlayerRole.FISH, new Position(1, 1));
+            Player fish = new Player(id, name, PlayerRole.FISH, Position.of(1, 1));
             gameState.setFish(fish);
         }
         if (crabClient != null) {
             String id = crabClient.getClientId();
             String name = "Crab";
-            Player crab = new Player(id, name, PlayerRole.CRAB, new Position(2, 5));
+            Player crab = new Player(id, name, PlayerRole.CRAB, Position.of(2, 5));
             gameState.setCrab(crab);
         }
     }
 
     private void broadcastLevelDataToAll() {
-        CaveMap map = gameState.getMap();
-        int w = map.getWidth();
-        int h = map.getHeight();
-        String[] rows = levels[currentLevelIndex];
-
-        LevelDataMessage msg = new LevelDataMessage(w, h, rows);
-
-        List<ClientHandler> clients = server.getClients();
-        synchronized (clients) {
-            for (ClientHandler c : clients) {
-                c.send(msg);
-            }
+        for (ClientConnection c : clients) {
+            c.send(levelData);
         }
     }
 
-    private void broadcastState() {
-        StringBuilder sb = new StringBuilder();
-
-        if (gameState.getFish() != null) {
-            Position pf = gameState.getFish().getPosition();
-            sb.append("F:").append(pf.getX()).append(",").append(pf.getY());
-        }
-        sb.append(";");
-        if (gameState.getCrab() != null) {
-            Position pc = gameState.getCrab().getPosition();
-            sb.append("C:").append(pc.getX()).append(",").append(pc.getY());
-        }
-
-        List<GameObject> objects = gameState.getObjects();
-        if (!objects.isEmpty()) {
-            sb.append(";O:");
-            boolean first = true;
-            for (GameObject obj : objects) {
-                if (!first) {
-                    sb.append("/");
-                }
-                first = false;
-                char t = switch (obj.getType()) {
-                    case MUSHROOM -> 'M';
-                    case BOX -> 'B';
-                    case ROCK -> 'R';
-                };
-                sb.append(t)
-                        .append(",")
-                        .append(obj.getPosition().getX())
-                        .append(",")
-                        .append(obj.getPosition().getY())
-                        .append(",")
-                        .append(obj.isActive() ? "1" : "0");
-            }
+    private void publishState() {
+        if (server.getTickRate() > 0) {
+            stateDirty = true;
+        } else {
+            broadcastState();
         }
+    }
 
-        if (gameState.isLevelCompleted()) {
-            sb.append(";D:1");
+    private void broadcastState() {
+        StateSnapshot snapshot = StateSnapshot.capture(gameState, levelEpoch, lastSnapshot);
+        lastSnapshot = snapshot;
+        for (int i = 0; i < clients.size(); i++) {
+            clients.get(i).sendState(snapshot);
         }
-
-        StateUpdateMessage msg = new StateUpdateMessage(sb.toString());
-        broadcast(msg);
     }
 
     private void broadcast(Message msg) {
-        List<ClientHandler> clients = server.getClients();
-        synchronized (clients) {
-            for (ClientHandler c : clients) {
-                c.send(msg);
-            }
+        for (ClientConnection c : clients) {
+            c.send(msg);
         }
     }
     private void restartCurrentLevelNoVote() {
-        this.gameState = loadLevel(currentLevelIndex);
+        this.gameState = loadLevel(level);
         recreatePlayersAfterLevelChange();
         placePlayersForCurrentLevel();
         clearVotes();
@@ -643,94 +501,200 @@ public class ServerGameLogic {
         restartRequester = null;
 
         broadcastLevelDataToAll();
-        broadcastState();
+        publishState();
         System.out.println("Level restarted by mutual agreement, level " + currentLevelIndex);
     }
 
-    public synchronized void handleRestartRequest(ClientHandler handler, RestartRequestMessage msg) {
-        if (fishClient == null && crabClient == null) {
-            return;
-        }
+    public void handleRestartRequest(ClientConnection handler, RestartRequestMessage msg) {
+        lock.lock();
+        try {
+            if (fishClient == null && crabClient == null) {
+                return;
+            }
 
-        if (fishClient == null || crabClient == null) {
-            restartCurrentLevelNoVote();
-            return;
-        }
+            if (fishClient == null || crabClient == null) {
+                restartCurrentLevelNoVote();
+                return;
+            }
 
-        if (restartRequested) {
-            return;
-        }
+            if (restartRequested) {
+                return;
+            }
 
-        restartRequested = true;
-        restartRequester = handler;
+            restartRequested = true;
+            restartRequester = handler;
 
-        String fromName = "Partner";
-        if (handler == fishClient && gameState.getFish() != null) {
-            fromName = gameState.getFish().getName();
-        } else if (handler == crabClient && gameState.getCrab() != null) {
-            fromName = gameState.getCrab().getName();
-        }
+            String fromName = "Partner";
+            if (handler == fishClient && gameState.getFish() != null) {
+                fromName = gameState.getFish().getName();
+            } else if (handler == crabClient && gameState.getCrab() != null) {
+                fromName = gameState.getCrab().getName();
+            }
 
-        ClientHandler other = (handler == fishClient) ? crabClient : fishClient;
-        if (other != null) {
-            other.send(new RestartOfferMessage(fromName));
+            ClientConnection other = (handler == fishClient) ? crabClient : fishClient;
+            if (other != null) {
+                other.send(new RestartOfferMessage(fromName));
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    public synchronized void handleRestartResponse(ClientHandler handler, RestartResponseMessage msg) {
-        if (!restartRequested || restartRequester == null) {
-            return;
-        }
+    public void handleRestartResponse(ClientConnection handler, RestartResponseMessage msg) {
+        lock.lock();
+        try {
+            if (!restartRequested || restartRequester == null) {
+                return;
+            }
 
-        boolean accepted = msg.isAccepted();
+            boolean accepted = msg.isAccepted();
 
-        if (!accepted) {
+            if (!accepted) {
 
-            if (restartRequester != null) {
-                restartRequester.send(new ErrorMessage(
-                        "RESTART_DECLINED",
-                        "Партнёр отклонил перезапуск уровня"
-                ));
+                if (restartRequester != null) {
+                    restartRequester.send(new ErrorMessage(
+                            "RESTART_DECLINED",
+                            "Партнёр отклонил перезапуск уровня"
+                    ));
+                }
+                restartRequested = false;
+                restartRequester = null;
+                return;
             }
-            restartRequested = false;
-            restartRequester = null;
-            return;
+
+            restartCurrentLevelNoVote();
+        } finally {
+            lock.unlock();
         }
+    }
 
-        restartCurrentLevelNoVote();
+    public void handleHintRequest(ClientConnection handler, HintRequestMessage msg) {
+        lock.lock();
+        try {
+            if (handler != fishClient && handler != crabClient) {
+                return;
+            }
+            if (gameState.isLevelCompleted()) {
+                handler.send(new ErrorMessage("HINT_DENIED", "Уровень уже пройден"));
+                return;
+            }
+            if (!hintWaiters.contains(handler)) {
+                hintWaiters.add(handler);
+            }
+            if (hintWaiters.size() == 1) {
+                solveHint();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public synchronized void handleDisconnect(ClientHandler handler) {
-        boolean isFish = (handler == fishClient);
-        boolean isCrab = (handler == crabClient);
+    private void solveHint() {
+        if (solver == null || solver.getLevel() != level) {
+            solver = new PuzzleSolver(level);
+            solver.setPool(server.getSolverPool());
+            solver.setStateLimit(HINT_STATE_LIMIT);
+        }
+        PuzzleSolver solverForLevel = solver;
+        Position fish = gameState.getFish() != null ? gameState.getFish().getPosition() : level.getFishSpawn();
+        Position crab = gameState.getCrab() != null ? gameState.getCrab().getPosition() : level.getCrabSpawn();
+        List<Position> boxes = new ArrayList<>();
+        for (int i = 0; i < gameState.getObjectCount(); i++) {
+            if (gameState.getObjectType(i) == ObjectType.BOX) {
+                boxes.add(Position.of(gameState.getObjectX(i), gameState.getObjectY(i)));
+            }
+        }
+        int epoch = levelEpoch;
+
+        boolean submitted = false;
+        try {
+            server.getSolverPool().execute(() -> {
+                Solution solution = null;
+                try {
+                    solution = solverForLevel.solve(fish, crab, boxes);
+                } catch (RuntimeException e) {
+                    System.out.println("Room " + roomId + " hint failed: " + e);
+                } finally {
+                    deliverHints(solution, epoch);
+                }
+            });
+            submitted = true;
+        } finally {
+            if (!submitted) {
+                hintWaiters.clear();
+            }
+        }
+    }
 
-        if (!isFish && !isCrab) {
-            return;
+    private void deliverHints(Solution solution, int epoch) {
+        lock.lock();
+        try {
+            hintWaiters.removeIf(waiter -> waiter != fishClient && waiter != crabClient);
+            if (hintWaiters.isEmpty()) {
+                return;
+            }
+            if (epoch != levelEpoch && !gameState.isLevelCompleted()) {
+                solveHint();
+                return;
+            }
+            try {
+                for (ClientConnection waiter : hintWaiters) {
+                    if (epoch != levelEpoch) {
+                        waiter.send(new ErrorMessage("HINT_DENIED", "Уровень уже пройден"));
+                    } else {
+                        PlayerRole role = waiter == fishClient ? PlayerRole.FISH : PlayerRole.CRAB;
+                        waiter.send(solution != null && solution.isSolved()
+                                ? new HintMessage(solution.getHint(role), solution.getPushes())
+                                : new HintMessage(InputMessage.InputType.STOP, -1));
+                    }
+                }
+            } finally {
+                hintWaiters.clear();
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        System.out.println((isFish ? "Fish" : "Crab") + " disconnected");
+    public void handleDisconnect(ClientConnection handler) {
+        lock.lock();
+        try {
+            clients.remove(handler);
 
-        fishClient = null;
-        crabClient = null;
+            boolean isFish = (handler == fishClient);
+            boolean isCrab = (handler == crabClient);
 
-        if (gameState.getFish() != null) {
-            gameState.setFish(null);
-        }
-        if (gameState.getCrab() != null) {
-            gameState.setCrab(null);
-        }
+            if (!isFish && !isCrab) {
+                return;
+            }
 
-        clearVotes();
+            System.out.println("Room " + roomId + ": " + (isFish ? "Fish" : "Crab") + " disconnected");
 
-        gameState = loadLevel(currentLevelIndex);
+            closed = true;
+            fishClient = null;
+            crabClient = null;
 
-        broadcast(new ErrorMessage(
-                "PLAYER_LEFT",
-                "Другой игрок отключился. Игра завершена, вернитесь в главное меню."
-        ));
+            if (gameState.getFish() != null) {
+                gameState.setFish(null);
+            }
+            if (gameState.getCrab() != null) {
+                gameState.setCrab(null);
+            }
 
-        restartRequested = false;
-        restartRequester = null;
+            clearVotes();
+
+            gameState = loadLevel(level);
+
+            broadcast(new ErrorMessage(
+                    "PLAYER_LEFT",
+                    "Другой игрок отключился. Игра завершена, вернитесь в главное меню."
+            ));
+
+            restartRequested = false;
+            restartRequester = null;
+        } finally {
+            lock.unlock();
+        }
     }
 
 }
@@ -1,9 +1,48 @@
 package symbiosis.server;
 
+import symbiosis.common.level.CaveGenerator;
+import symbiosis.common.level.LevelCatalog;
+
+import java.nio.file.Path;
+
 public class ServerMain {
     public static void main(String[] args) {
         int port = 5555;
-        GameServer server = new GameServer(port);
+        GameServer.Transport transport = GameServer.Transport.NIO;
+        int eventLoops = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        boolean textOnly = false;
+        int tickRate = 30;
+        String levelsPath = null;
+        CaveGenerator generator = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--transport=")) {
+                transport = GameServer.Transport.valueOf(arg.substring("--transport=".length()).toUpperCase());
+            } else if (arg.startsWith("--event-loops=")) {
+                eventLoops = Math.max(1, Integer.parseInt(arg.substring("--event-loops=".length())));
+            } else if (arg.startsWith("--tick=")) {
+                tickRate = Integer.parseInt(arg.substring("--tick=".length()));
+            } else if (arg.startsWith("--levels=")) {
+                levelsPath = arg.substring("--levels=".length());
+            } else if (arg.startsWith("--generator=")) {
+                String[] size = arg.substring("--generator=".length()).toLowerCase().split("x");
+                generator = CaveGenerator.forSize(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+            } else if (arg.equals("--text-only")) {
+                textOnly = true;
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+
+        GameServer server = new GameServer(port, transport, eventLoops);
+        server.setBinaryEnabled(!textOnly);
+        server.setTickRate(tickRate);
+        if (levelsPath != null) {
+            server.setLevelCatalog(LevelCatalog.fromPath(Path.of(levelsPath)));
+        }
+        if (generator != null) {
+            server.setLevelGenerator(generator);
+        }
         server.start();
     }
 }
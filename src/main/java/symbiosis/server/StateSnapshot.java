@@ -0,0 +1,179 @@
+package symbiosis.server;
+
+import symbiosis.common.model.GameState;
+import symbiosis.common.model.Player;
+
+public class StateSnapshot {
+
+    private final int levelEpoch;
+
+    private final boolean hasFish;
+    private final int fishX;
+    private final int fishY;
+
+    private final boolean hasCrab;
+    private final int crabX;
+    private final int crabY;
+
+    private final int objectVersion;
+    private final int[] objectIds;
+    private final char[] objectTypes;
+    private final int[] objectX;
+    private final int[] objectY;
+    private final boolean[] objectActive;
+
+    private final boolean levelCompleted;
+
+    private String fullPayload;
+    private StateSnapshot deltaBase;
+    private String deltaPayload;
+
+    private StateSnapshot(GameState state, int levelEpoch, StateSnapshot previous) {
+        this.levelEpoch = levelEpoch;
+
+        Player fish = state.getFish();
+        hasFish = fish != null;
+        fishX = hasFish ? fish.getPosition().getX() : 0;
+        fishY = hasFish ? fish.getPosition().getY() : 0;
+
+        Player crab = state.getCrab();
+        hasCrab = crab != null;
+        crabX = hasCrab ? crab.getPosition().getX() : 0;
+        crabY = hasCrab ? crab.getPosition().getY() : 0;
+
+        objectVersion = state.getObjectVersion();
+        if (previous != null && previous.levelEpoch == levelEpoch && previous.objectVersion == objectVersion) {
+            objectIds = previous.objectIds;
+            objectTypes = previous.objectTypes;
+            objectX = previous.objectX;
+            objectY = previous.objectY;
+            objectActive = previous.objectActive;
+        } else {
+            int n = state.getObjectCount();
+            objectIds = new int[n];
+            objectTypes = new char[n];
+            objectX = new int[n];
+            objectY = new int[n];
+            objectActive = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                objectIds[i] = state.getObjectId(i);
+                objectTypes[i] = switch (state.getObjectType(i)) {
+                    case MUSHROOM -> 'M';
+                    case BOX -> 'B';
+                    case ROCK -> 'R';
+                };
+                objectX[i] = state.getObjectX(i);
+                objectY[i] = state.getObjectY(i);
+                objectActive[i] = state.isObjectActive(i);
+            }
+        }
+
+        levelCompleted = state.isLevelCompleted();
+    }
+
+    public static StateSnapshot capture(GameState state, int levelEpoch) {
+        return new StateSnapshot(state, levelEpoch, null);
+    }
+
+    public static StateSnapshot capture(GameState state, int levelEpoch, StateSnapshot previous) {
+        return new StateSnapshot(state, levelEpoch, previous);
+    }
+
+    public int getLevelEpoch() {
+        return levelEpoch;
+    }
+
+    public String toPayload() {
+        if (fullPayload != null) {
+            return fullPayload;
+        }
+
+        StringBuilder sb = new StringBuilder(32 + objectTypes.length * 10);
+
+        if (hasFish) {
+            sb.append("F:").append(fishX).append(",").append(fishY);
+        }
+        sb.append(";");
+        if (hasCrab) {
+            sb.append("C:").append(crabX).append(",").append(crabY);
+        }
+
+        if (objectTypes.length > 0) {
+            sb.append(";O:");
+            for (int i = 0; i < objectTypes.length; i++) {
+                if (i > 0) {
+                    sb.append("/");
+                }
+                sb.append(objectTypes[i])
+                        .append(",")
+                        .append(objectX[i])
+                        .append(",")
+                        .append(objectY[i])
+                        .append(",")
+                        .append(objectActive[i] ? "1" : "0")
+                        .append(",")
+                        .append(objectIds[i]);
+            }
+        }
+
+        if (levelCompleted) {
+            sb.append(";D:1");
+        }
+
+        fullPayload = sb.toString();
+        return fullPayload;
+    }
+
+    public String toDeltaPayload(StateSnapshot base) {
+        if (base == deltaBase && deltaPayload != null) {
+            return deltaPayload;
+        }
+
+        if (base.levelEpoch != levelEpoch
+                || base.objectTypes.length != objectTypes.length
+                || (base.hasFish && !hasFish)
+                || (base.hasCrab && !hasCrab)) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(32);
+        boolean changed = false;
+
+        if (hasFish && (!base.hasFish || base.fishX != fishX || base.fishY != fishY)) {
+            sb.append(";F:").append(fishX).append(",").append(fishY);
+            changed = true;
+        }
+        if (hasCrab && (!base.hasCrab || base.crabX != crabX || base.crabY != crabY)) {
+            sb.append(";C:").append(crabX).append(",").append(crabY);
+            changed = true;
+        }
+
+        boolean firstObject = true;
+        for (int i = 0; objectX != base.objectX && i < objectTypes.length; i++) {
+            if (base.objectX[i] == objectX[i]
+                    && base.objectY[i] == objectY[i]
+                    && base.objectActive[i] == objectActive[i]) {
+                continue;
+            }
+            sb.append(firstObject ? ";P:" : "/")
+                    .append(i)
+                    .append(",")
+                    .append(objectX[i])
+                    .append(",")
+                    .append(objectY[i])
+                    .append(",")
+                    .append(objectActive[i] ? "1" : "0");
+            firstObject = false;
+            changed = true;
+        }
+
+        if (base.levelCompleted != levelCompleted) {
+            sb.append(";D:").append(levelCompleted ? "1" : "0");
+            changed = true;
+        }
+
+        deltaBase = base;
+        deltaPayload = changed ? "U:1" + sb : "";
+        return deltaPayload;
+    }
+}
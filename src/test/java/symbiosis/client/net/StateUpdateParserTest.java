@@ -0,0 +1,52 @@
+package symbiosis.client.net;
+
+import org.junit.jupiter.api.Test;
+import symbiosis.client.ui.ViewState;
+import symbiosis.common.model.ObjectType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateUpdateParserTest {
+
+    @Test
+    void readsEntityIdsFromFullState() {
+        ViewState view = new ViewState();
+        StateUpdateParser parser = new StateUpdateParser();
+
+        parser.apply("F:1,1;C:2,2;O:B,3,4,0,17/M,5,6,1,18", view);
+
+        EntityTable entities = view.getWorld().getEntities();
+        assertEquals(2, entities.size());
+        assertEquals(17, entities.getId(0));
+        assertEquals(ObjectType.BOX, entities.getType(0));
+        assertEquals(18, entities.getId(1));
+        assertTrue(entities.isActive(1));
+    }
+
+    @Test
+    void deltaKeepsEntityIds() {
+        ViewState view = new ViewState();
+        StateUpdateParser parser = new StateUpdateParser();
+
+        parser.apply("F:1,1;C:2,2;O:B,3,4,0,17/M,5,6,1,18", view);
+        parser.apply("U:1;P:0,4,4,0", view);
+
+        EntityTable entities = view.getWorld().getEntities();
+        assertEquals(17, entities.getId(0));
+        assertEquals(4, entities.getX(0));
+    }
+
+    @Test
+    void fallsBackToIndexWhenServerSendsNoIds() {
+        ViewState view = new ViewState();
+        StateUpdateParser parser = new StateUpdateParser();
+
+        parser.apply("F:1,1;C:2,2;O:B,3,4,0/M,5,6,1", view);
+
+        EntityTable entities = view.getWorld().getEntities();
+        assertEquals(0, entities.getId(0));
+        assertEquals(1, entities.getId(1));
+        assertTrue(entities.isActive(1));
+    }
+}
@@ -0,0 +1,32 @@
+package symbiosis.common.level;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaveGeneratorTest {
+
+    @Test
+    void generatedCavesNeedAtLeastTheMinimumPushes() {
+        CaveGenerator generator = CaveGenerator.forSize(20, 15);
+        assertTrue(generator.getMinPushes() > 0);
+
+        for (long seed = 1; seed <= 20; seed++) {
+            LevelTemplate level = generator.generate(seed);
+            Solution solution = LevelValidator.validate(level, LevelValidator.DEFAULT_STATE_LIMIT);
+            assertTrue(solution.isSolved(), level.getName() + " is not solvable");
+            assertTrue(solution.getPushes() >= generator.getMinPushes(),
+                    level.getName() + " needs only " + solution.getPushes() + " pushes");
+            assertNotEquals(level.getFishSpawn(), level.getCrabSpawn(), level.getName() + " spawns both players together");
+        }
+    }
+
+    @Test
+    void sameSeedGeneratesSameCave() {
+        CaveGenerator generator = CaveGenerator.forSize(20, 15);
+        assertEquals(String.join("\n", generator.generate(42).getDefinition().getRows()),
+                String.join("\n", generator.generate(42).getDefinition().getRows()));
+    }
+}
@@ -0,0 +1,98 @@
+package symbiosis.common.level;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LevelArchiveTest {
+
+    private LevelCatalog catalog;
+    private Path archive;
+
+    @BeforeEach
+    void writeArchive() throws IOException {
+        catalog = LevelCatalog.fromClasspath();
+        archive = Files.createTempFile("levels", LevelArchive.EXTENSION);
+        LevelArchive.write(catalog, archive);
+    }
+
+    @AfterEach
+    void deleteArchive() throws IOException {
+        Files.deleteIfExists(archive);
+    }
+
+    @Test
+    void loadsSameRowsAsSource() {
+        LevelArchive opened = LevelArchive.open(archive);
+        for (int i = 0; i < opened.size(); i++) {
+            assertArrayEquals(catalog.getTemplate(i).getRows(), opened.load(i).getRows());
+        }
+    }
+
+    @Test
+    void readsNamesWithoutLoadingLevels() throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        bytes[bytes.length - 1] = 0x7F;
+        Files.write(archive, bytes);
+        LevelCatalog packed = LevelCatalog.fromArchive(archive);
+        for (int i = 0; i < packed.size(); i++) {
+            assertEquals(catalog.getTemplate(i).getName(), packed.getName(i));
+            assertEquals(catalog.getTemplate(i).getDifficulty(), packed.getDifficulty(i));
+            assertEquals(catalog.getTemplate(i).getName(), LevelCatalog.fromClasspath().getName(i));
+        }
+    }
+
+    @Test
+    void rejectsUnknownTileOnLoad() throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        bytes[bytes.length - 1] = 0x7F;
+        Files.write(archive, bytes);
+        assertRejectsLastLevel();
+    }
+
+    @Test
+    void rejectsTruncatedTilePlaneOnLoad() throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        Files.write(archive, Arrays.copyOf(bytes, bytes.length - 1));
+        assertRejectsLastLevel();
+    }
+
+    @Test
+    void rejectsTruncatedEntryHeaderOnLoad() throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        Files.write(archive, Arrays.copyOf(bytes, (int) lastOffset(bytes) + 3));
+        assertRejectsLastLevel();
+    }
+
+    @Test
+    void rejectsSpawnOutsideMapOnLoad() throws IOException {
+        byte[] bytes = Files.readAllBytes(archive);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int entry = (int) lastOffset(bytes);
+        int fishX = entry + Short.BYTES + (buffer.getShort(entry) & 0xFFFF) + Integer.BYTES;
+        buffer.putInt(fishX, 10_000);
+        Files.write(archive, bytes);
+        assertRejectsLastLevel();
+    }
+
+    private void assertRejectsLastLevel() {
+        LevelArchive opened = LevelArchive.open(archive);
+        opened.load(0);
+        assertThrows(IllegalArgumentException.class, () -> opened.load(opened.size() - 1));
+    }
+
+    private static long lastOffset(byte[] bytes) {
+        int count = ByteBuffer.wrap(bytes).getInt(8);
+        return ByteBuffer.wrap(bytes).getLong(12 + (count - 1) * Long.BYTES);
+    }
+}
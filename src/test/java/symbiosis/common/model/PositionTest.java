@@ -0,0 +1,51 @@
+package symbiosis.common.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionTest {
+
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    void cachedPositionsAreInterned() {
+        assertSame(Position.of(3, 4), Position.of(3, 4));
+        assertSame(Position.of(3, 4), Position.of(2, 4).translate(1, 0));
+        assertNotSame(Position.of(100, 4), Position.of(100, 4));
+        assertEquals(Position.of(100, 4), Position.of(100, 4));
+    }
+
+    @Test
+    void movingInsideCacheDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Position[] sink = new Position[64];
+        walk(sink);
+
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        walk(sink);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated < 4096, "walking " + ITERATIONS + " steps allocated " + allocated + " bytes");
+    }
+
+    private static void walk(Position[] sink) {
+        Position p = Position.of(1, 1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            p = switch (i & 3) {
+                case 0 -> p.translate(1, 0);
+                case 1 -> p.translate(0, 1);
+                case 2 -> p.translate(-1, 0);
+                default -> p.translate(0, -1);
+            };
+            sink[i & 63] = p;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package symbiosis.common.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class LevelDataMessageTest {
+
+    private static final String[] ROWS = {"#####", "#.B.#", "#####"};
+
+    @Test
+    void textCodecCarriesEntityIds() {
+        LevelDataMessage msg = new LevelDataMessage(5, 3, ROWS, new int[]{7, 8, 42});
+        String line = new ProtocolEncoder().encode(msg);
+
+        LevelDataMessage decoded = (LevelDataMessage) new ProtocolDecoder().decode(line);
+        assertArrayEquals(ROWS, decoded.getRows());
+        assertArrayEquals(new int[]{7, 8, 42}, decoded.getEntityIds());
+    }
+
+    @Test
+    void binaryCodecCarriesEntityIds() {
+        BinaryCodec codec = new BinaryCodec();
+        byte[] frame = codec.encodeFrame(new LevelDataMessage(5, 3, ROWS, new int[]{3, 300000}));
+
+        ByteBuffer in = ByteBuffer.wrap(frame);
+        in.get();
+        int length = BinaryCodec.readVarInt(in);
+        LevelDataMessage decoded = (LevelDataMessage) codec.decode(in.slice(in.position(), length));
+        assertArrayEquals(ROWS, decoded.getRows());
+        assertArrayEquals(new int[]{3, 300000}, decoded.getEntityIds());
+    }
+
+    @Test
+    void levelDataWithoutIdsDecodesToEmptyIds() {
+        LevelDataMessage decoded = (LevelDataMessage) new ProtocolDecoder().decode("LEVEL_DATA|5|3|#####|#.B.#|#####");
+        assertArrayEquals(new int[0], decoded.getEntityIds());
+    }
+}
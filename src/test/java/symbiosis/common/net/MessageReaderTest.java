@@ -0,0 +1,62 @@
+package symbiosis.common.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageReaderTest {
+
+    private static MessageReader reader(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            data[i] = (byte) bytes[i];
+        }
+        return new MessageReader(new ByteArrayInputStream(data), new ProtocolDecoder(), new BinaryCodec());
+    }
+
+    @Test
+    void rejectsLengthThatOverflowsToNegative() {
+        MessageReader reader = reader(BinaryCodec.FRAME_MARKER, 0x80, 0x80, 0x80, 0x80, 0x08);
+        assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    void rejectsFifthLengthByteAboveFourBits() {
+        MessageReader reader = reader(BinaryCodec.FRAME_MARKER, 0x80, 0x80, 0x80, 0x80, 0x10);
+        assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    void rejectsLengthWithoutTerminatingByte() {
+        MessageReader reader = reader(BinaryCodec.FRAME_MARKER, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01);
+        assertThrows(IOException.class, reader::read);
+    }
+
+    @Test
+    void readsValidFrameAfterLengthPrefix() throws IOException {
+        byte[] frame = new BinaryCodec().encodeFrame(new ChatMessage("a", "hello"));
+        MessageReader reader = new MessageReader(new ByteArrayInputStream(frame),
+                new ProtocolDecoder(), new BinaryCodec());
+
+        ChatMessage msg = (ChatMessage) reader.read();
+        assertEquals("hello", msg.getText());
+        assertEquals(WireFormat.BINARY, reader.getLastFormat());
+    }
+
+    @Test
+    void codecRejectsOverflowingVarInt() {
+        ByteBuffer in = ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10});
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.readVarInt(in));
+    }
+
+    @Test
+    void codecReadsLargestFiveByteVarInt() {
+        ByteBuffer in = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+        assertEquals(-1, BinaryCodec.readVarInt(in));
+    }
+}
@@ -0,0 +1,55 @@
+package symbiosis.common.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateUpdateCodecTest {
+
+    private final BinaryCodec codec = new BinaryCodec();
+
+    private String roundTrip(String payload) {
+        byte[] frame = codec.encodeFrame(new StateUpdateMessage(payload));
+        ByteBuffer in = ByteBuffer.wrap(frame);
+        in.get();
+        BinaryCodec.readVarInt(in);
+        return ((StateUpdateMessage) codec.decode(in)).getPayload();
+    }
+
+    @Test
+    void roundTripsStatePayloads() {
+        for (String payload : new String[]{
+                "",
+                "F:1,1;C:2,5;O:M,6,4,0,2/B,6,5,0,3",
+                "U:1;C:2,5;P:2,1,5,0;Q:8",
+                "U:1;F:300,70000;P:126,127,128,0;Q:2147483647",
+                "F:05,1;C:-3,4;P:1,,2",
+                "Q:1234567890,12",
+                "F:1,1;D:1",
+        }) {
+            assertEquals(payload, roundTrip(payload));
+        }
+    }
+
+    @Test
+    void fallsBackToPlainTextOutsidePrintableAscii() {
+        String payload = "F:1,1;X:\u0444\n";
+        assertEquals(payload, roundTrip(payload));
+    }
+
+    @Test
+    void packsNumbersSmallerThanText() {
+        StringBuilder sb = new StringBuilder("F:12,34;C:56,7;O:");
+        for (int i = 0; i < 40; i++) {
+            sb.append(i == 0 ? "" : "/").append("B,").append(i + 10).append(',').append(i + 20).append(",0,").append(i + 100);
+        }
+        String payload = sb.toString();
+        int text = payload.getBytes(StandardCharsets.UTF_8).length;
+        int packed = codec.encodeFrame(new StateUpdateMessage(payload)).length;
+        assertTrue(packed * 3 < text * 2, "packed " + packed + " bytes vs " + text + " bytes of text");
+    }
+}
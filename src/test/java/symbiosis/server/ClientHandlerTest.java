@@ -0,0 +1,140 @@
+package symbiosis.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientHandlerTest {
+
+    @Test
+    void stalledClientDoesNotFreezeOtherRoomsOnPlatformThreads() throws Exception {
+        assertOtherRoomsKeepTicking(GameServer.Transport.THREAD);
+    }
+
+    @Test
+    void stalledClientDoesNotFreezeOtherRoomsOnVirtualThreads() throws Exception {
+        assertOtherRoomsKeepTicking(GameServer.Transport.VIRTUAL);
+    }
+
+    private static void assertOtherRoomsKeepTicking(GameServer.Transport transport) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        GameServer server = new GameServer(port, transport, 1);
+        Thread.ofPlatform().daemon().start(server::start);
+
+        try (Socket stalled = new Socket()) {
+            stalled.setReceiveBufferSize(2048);
+            stalled.connect(new InetSocketAddress("localhost", awaitServer(port)));
+            write(stalled, "JOIN|stalled|FISH|0");
+
+            try (Socket partner = connect(port);
+                 Socket fish = connect(port);
+                 Socket crab = connect(port)) {
+                write(partner, "JOIN|partner|CRAB|0");
+                String partnerId = awaitRoleId(partner);
+                Thread.ofPlatform().daemon().start(() -> drain(partner));
+
+                write(fish, "JOIN|fish|FISH|1");
+                write(crab, "JOIN|crab|CRAB|1");
+                awaitRoleId(fish);
+                String crabId = awaitRoleId(crab);
+                Thread.ofPlatform().daemon().start(() -> drain(fish));
+
+                String chat = "CHAT|" + partnerId + "|" + "x".repeat(1000);
+                Thread.ofPlatform().daemon().start(() -> {
+                    try {
+                        for (int i = 0; ; i++) {
+                            write(partner, chat);
+                            write(partner, "INPUT|" + partnerId + "|" + (i % 2 == 0 ? "MOVE_LEFT" : "MOVE_RIGHT"));
+                        }
+                    } catch (IOException ignored) {
+                    }
+                });
+                Thread.sleep(2000);
+
+                BufferedReader in = reader(crab);
+                while (in.ready()) {
+                    in.readLine();
+                }
+                write(crab, "INPUT|" + crabId + "|MOVE_UP");
+                assertTrue(awaitLine(in, "STATE"), "room 2 stopped receiving state updates");
+            }
+        }
+    }
+
+    private static int awaitServer(int port) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return port;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static Socket connect(int port) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(3000);
+        return socket;
+    }
+
+    private static void write(Socket socket, String line) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static String awaitRoleId(Socket socket) throws IOException {
+        BufferedReader in = reader(socket);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.startsWith("ROLE_ASSIGNED|")) {
+                return line.split("\\|")[1];
+            }
+        }
+        throw new IOException("Connection closed before role was assigned");
+    }
+
+    private static boolean awaitLine(BufferedReader in, String prefix) throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private static void drain(Socket socket) {
+        byte[] buffer = new byte[65536];
+        try {
+            while (socket.getInputStream().read(buffer) >= 0) {
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package symbiosis.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import symbiosis.common.model.CaveMap;
+import symbiosis.common.model.GameState;
+import symbiosis.common.model.Player;
+import symbiosis.common.model.PlayerRole;
+import symbiosis.common.model.Position;
+import symbiosis.common.net.InputMessage;
+import symbiosis.common.net.JoinMessage;
+import symbiosis.common.net.Message;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveAllocationTest {
+
+    private static final int MOVES = 20_000;
+    private static final long SLACK_BYTES = 4096;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private NoopConnection crab;
+    private ServerGameLogic room;
+
+    @BeforeEach
+    void joinRoom() {
+        GameServer server = new GameServer(0, GameServer.Transport.NIO, 1);
+        NoopConnection fish = new NoopConnection(server);
+        crab = new NoopConnection(server);
+        fish.handleMessage(new JoinMessage("fish", "FISH", 0, ""));
+        crab.handleMessage(new JoinMessage("crab", "CRAB", 0, ""));
+        room = crab.getRoom();
+    }
+
+    @Test
+    void blockedInputsDoNotAllocate() {
+        InputMessage[] up = {input(InputMessage.InputType.MOVE_UP), input(InputMessage.InputType.MOVE_UP)};
+        run(up);
+
+        int states = crab.states;
+        long allocated = measure(() -> run(up));
+
+        assertEquals(states, crab.states, "blocked inputs should not broadcast state");
+        assertTrue(allocated < SLACK_BYTES, MOVES + " blocked inputs allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void movesAllocateOnlyTheBroadcastSnapshot() {
+        InputMessage[] upDown = {input(InputMessage.InputType.MOVE_UP), input(InputMessage.InputType.MOVE_DOWN)};
+        run(upDown);
+        long snapshotBytes = snapshotBytes();
+
+        int states = crab.states;
+        long allocated = measure(() -> run(upDown));
+
+        assertEquals(states + MOVES, crab.states, "every move should broadcast state");
+        assertTrue(allocated < MOVES * snapshotBytes + SLACK_BYTES,
+                MOVES + " moves allocated " + allocated + " bytes, snapshots alone take " + MOVES * snapshotBytes);
+    }
+
+    private InputMessage input(InputMessage.InputType type) {
+        return new InputMessage(crab.getClientId(), type);
+    }
+
+    private void run(InputMessage[] inputs) {
+        for (int i = 0; i < MOVES; i++) {
+            room.handleInput(inputs[i & 1]);
+            room.tick();
+        }
+    }
+
+    private long measure(Runnable work) {
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        work.run();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    private long snapshotBytes() {
+        GameState state = new GameState(new CaveMap(8, 8));
+        state.setFish(new Player("F", "fish", PlayerRole.FISH, Position.of(1, 1)));
+        state.setCrab(new Player("C", "crab", PlayerRole.CRAB, Position.of(2, 2)));
+        StateSnapshot[] last = {StateSnapshot.capture(state, 1)};
+        Runnable capture = () -> {
+            for (int i = 0; i < MOVES; i++) {
+                last[0] = StateSnapshot.capture(state, 1, last[0]);
+            }
+        };
+        capture.run();
+        return measure(capture) / MOVES;
+    }
+
+    private static final class NoopConnection extends ClientConnection {
+
+        int states;
+
+        NoopConnection(GameServer server) {
+            super(server);
+        }
+
+        @Override
+        public void send(Message msg) {
+        }
+
+        @Override
+        public void sendState(StateSnapshot state) {
+            states++;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package symbiosis.server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import symbiosis.common.net.BinaryCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NioConnectionTest {
+
+    private static int port;
+    private static Thread serverThread;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        GameServer server = new GameServer(port, GameServer.Transport.NIO, 1);
+        server.setTickRate(0);
+        serverThread = Thread.ofPlatform().daemon().name("TestServer").start(server::start);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    @AfterAll
+    static void stopServer() {
+        serverThread.interrupt();
+    }
+
+    @Test
+    void closesConnectionOnOverflowingLengthPrefix() throws IOException {
+        assertClosedAfter(BinaryCodec.FRAME_MARKER, 0x80, 0x80, 0x80, 0x80, 0x08);
+    }
+
+    @Test
+    void closesConnectionOnOversizedFifthLengthByte() throws IOException {
+        assertClosedAfter(BinaryCodec.FRAME_MARKER, 0xFF, 0xFF, 0xFF, 0xFF, 0x7F);
+    }
+
+    @Test
+    void keepsServingOtherClientsAfterMalformedFrame() throws IOException {
+        assertClosedAfter(BinaryCodec.FRAME_MARKER, 0x80, 0x80, 0x80, 0x80, 0x08);
+
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write("JOIN|tester\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertTrue(socket.getInputStream().read() >= 0);
+        }
+    }
+
+    private static void assertClosedAfter(int... bytes) throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            for (int b : bytes) {
+                out.write(b);
+            }
+            out.flush();
+            InputStream in = socket.getInputStream();
+            assertEquals(-1, in.read());
+        }
+    }
+
+    private static Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+}
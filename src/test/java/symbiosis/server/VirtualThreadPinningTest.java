@@ -0,0 +1,106 @@
+package symbiosis.server;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void virtualTransportDoesNotPinCarrierThreads() throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        boolean finished;
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            GameServer server = new GameServer(port, GameServer.Transport.VIRTUAL, 1);
+            Thread.ofPlatform().daemon().start(server::start);
+            awaitServer(port);
+            Thread load = Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    new LoadGenerator("localhost", port, 200, 3, 20).run();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            load.join(LOAD_TIMEOUT.toMillis());
+            finished = !load.isAlive();
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<String> pinned = new ArrayList<>();
+        try {
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                if (event.getEventType().getName().equals(PINNED_EVENT) && inGameCode(event.getStackTrace())) {
+                    pinned.add(describe(event.getStackTrace()));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        assertTrue(pinned.isEmpty(), "virtual threads pinned at " + pinned);
+        assertTrue(finished, "load did not finish in " + LOAD_TIMEOUT + ", carriers are likely pinned");
+    }
+
+    private static boolean inGameCode(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return false;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("symbiosis.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        StringBuilder sb = new StringBuilder();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!sb.isEmpty()) {
+                sb.append(" <- ");
+            }
+            sb.append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+
+    private static void awaitServer(int port) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+    }
+}